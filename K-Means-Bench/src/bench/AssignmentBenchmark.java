@@ -0,0 +1,74 @@
+package bench;
+
+import core.AssignmentKernel;
+import core.AssignmentStrategy;
+import core.ClusterAccumulator;
+import core.KMeansAssignTask;
+import model.PointMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One fused assignment pass ({@link KMeansAssignTask}): nearest centroid of every row plus the
+ * per-cluster sums, counts and SSE, on a dedicated pool of {@code threads} workers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class AssignmentBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"8", "32"})
+    public int k;
+
+    @Param({"2", "16"})
+    public int d;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"SCALAR", "VECTOR", "BLOCKED"})
+    public AssignmentStrategy strategy;
+
+    private PointMatrix data;
+    private AssignmentKernel kernel;
+    private int[] labels;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.synthetic(n, d);
+        kernel = strategy.createKernel(data, k);
+        kernel.setCentroids(BenchmarkData.centroids(data, k));
+        labels = new int[n];
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public ClusterAccumulator assign() {
+        return pool.invoke(new KMeansAssignTask(data, 0, n, kernel, labels));
+    }
+}
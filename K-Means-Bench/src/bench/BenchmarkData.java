@@ -0,0 +1,51 @@
+package bench;
+
+import model.Cluster;
+import model.DataSetLoader;
+import model.Point;
+import model.PointMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inputs shared by the benchmarks: the synthetic generator at a given n and d, and
+ * deterministic starting centroids, so every run of a parameter set sees the same work
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42;
+    static final int BLOBS = 16;          // Gaussian blobs in the synthetic data, independent of k
+    static final double NOISE = 0.5;
+
+    private BenchmarkData() {
+    }
+
+    static PointMatrix synthetic(int n, int d) {
+        return DataSetLoader.generateSyntheticMatrix(n, d, BLOBS, NOISE);
+    }
+
+    /**
+     * k rows spread evenly through the (shuffled) data, as a k x d row-major array
+     */
+    static double[] centroids(PointMatrix data, int k) {
+        int d = data.getDimension();
+        double[] centroids = new double[k * d];
+        for (int c = 0; c < k; c++) {
+            data.copyRow((int) ((long) c * data.size() / k), centroids, c * d);
+        }
+        return centroids;
+    }
+
+    static List<Cluster> clusters(PointMatrix data, int k) {
+        int d = data.getDimension();
+        double[] centroids = centroids(data, k);
+        List<Cluster> clusters = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            double[] coords = new double[d];
+            System.arraycopy(centroids, c * d, coords, 0, d);
+            clusters.add(new Cluster(new Point(coords)));
+        }
+        return clusters;
+    }
+}
@@ -0,0 +1,25 @@
+package bench;
+
+import java.util.Arrays;
+
+/**
+ * Entry point for the JMH suite. Arguments go straight to the JMH command line, for example
+ * <pre>
+ *   bench.BenchmarkRunner AssignmentBenchmark -p n=1000000 -p threads=1,2,4,8
+ * </pre>
+ * Without arguments every benchmark runs with its default parameters and the results are
+ * written to jmh-result.json, so runs can be diffed to track regressions and speedups.
+ *
+ * Run from the project root (or K-Means/) so the forked JVMs find the module output; the
+ * benchmarks generate their own synthetic data and do not read the datasets under data/.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            args = new String[]{"-rf", "json", "-rff", "jmh-result.json"};
+        }
+        System.out.println("JMH " + Arrays.toString(args));
+        org.openjdk.jmh.Main.main(args);
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import model.Point;
+import model.PointMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.DistanceUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One point-to-point distance, through Point objects and through the flat row-major arrays the
+ * engines use. Each invocation walks {@value #PAIRS} pairs so the loop overhead is amortized.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DistanceBenchmark {
+
+    static final int PAIRS = 1024;
+
+    @Param({"2", "14", "64"})
+    public int d;
+
+    private double[] rows;
+    private List<Point> points;
+
+    @Setup
+    public void setup() {
+        PointMatrix data = BenchmarkData.synthetic(PAIRS + 1, d);
+        rows = data.getData();
+        points = data.toPoints();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void pointDistance(Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(DistanceUtils.distance(points.get(i), points.get(i + 1)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void flatDistance(Blackhole blackhole) {
+        for (int i = 0, offset = 0; i < PAIRS; i++, offset += d) {
+            blackhole.consume(DistanceUtils.distance(rows, offset, rows, offset + d, d));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void flatSquaredDistance(Blackhole blackhole) {
+        for (int i = 0, offset = 0; i < PAIRS; i++, offset += d) {
+            blackhole.consume(DistanceUtils.squaredDistance(rows, offset, rows, offset + d, d));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package bench;
+
+import core.KMeansConfig;
+import core.KMeansParallel;
+import core.KMeansSequential;
+import model.Cluster;
+import model.PointMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full Lloyd runs of {@link KMeansSequential} and {@link KMeansParallel} from the same starting
+ * centroids and seed, with engine output off. The zero-reassignment rule is off too, so both engines
+ * stop on the same rule: after {@code iterations} passes, or earlier only once no centroid moves at
+ * all. Both then do the same work and the ratio of their scores is the speedup at {@code threads}
+ * workers. Seeding is not timed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EngineBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"8", "32"})
+    public int k;
+
+    @Param({"2", "16"})
+    public int d;
+
+    @Param({"1", "4"})
+    public int threads;     // workers of the parallel engine's pool; the sequential engine ignores it
+
+    @Param({"20"})
+    public int iterations;
+
+    private PointMatrix data;
+    private List<Cluster> initial;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.synthetic(n, d);
+        initial = BenchmarkData.clusters(data, k);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private KMeansConfig config() {
+        KMeansConfig config = new KMeansConfig(k, iterations, 0.0);
+        config.setSeed(BenchmarkData.SEED);
+        config.setPool(pool);
+        config.setStopOnStableLabels(false);
+        config.setVerbose(false);
+        return config;
+    }
+
+    @Benchmark
+    public double sequential() {
+        KMeansSequential engine = new KMeansSequential(config(), data);
+        engine.setInitialClusters(initial);
+        engine.run();
+        return engine.computeSSE();
+    }
+
+    @Benchmark
+    public double parallel() {
+        KMeansParallel engine = new KMeansParallel(config(), data);
+        engine.setInitialClusters(initial);
+        engine.run();
+        return engine.computeSSE();
+    }
+}
@@ -0,0 +1,66 @@
+package bench;
+
+import bonus.KMeansPlusPlusInitializer;
+import model.Point;
+import model.PointMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * k-means++ seeding ({@link KMeansPlusPlusInitializer}) on a dedicated pool; a fixed seed per
+ * invocation, so every invocation picks the same centroids
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class KMeansPlusPlusBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"8", "32"})
+    public int k;
+
+    @Param({"2", "16"})
+    public int d;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private PointMatrix data;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.synthetic(n, d);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Point> seed() {
+        return KMeansPlusPlusInitializer.initializeCentroids(data, k, new SplittableRandom(BenchmarkData.SEED), pool);
+    }
+}
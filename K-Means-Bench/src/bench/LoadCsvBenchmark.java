@@ -0,0 +1,69 @@
+package bench;
+
+import model.DataSetLoader;
+import model.Point;
+import model.PointMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing into Point objects ({@link DataSetLoader#loadCSV}) and into a flat matrix
+ * ({@link DataSetLoader#loadCSVMatrix}), from a synthetic file written once per trial
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LoadCsvBenchmark {
+
+    @Param({"10000", "100000"})
+    public int n;
+
+    @Param({"2", "16"})
+    public int d;
+
+    private File file;
+    private int[] columns;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("kmeans-bench-", ".csv");
+        DataSetLoader.savePointsToCSV(BenchmarkData.synthetic(n, d).toPoints(), file.getAbsolutePath(), true);
+        columns = new int[d];
+        for (int j = 0; j < d; j++) {
+            columns[j] = j;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public List<Point> loadCSV() {
+        return DataSetLoader.loadCSV(file.getAbsolutePath(), columns);
+    }
+
+    @Benchmark
+    public PointMatrix loadCSVMatrix() {
+        return DataSetLoader.loadCSVMatrix(file.getAbsolutePath(), columns);
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import core.KMeansAssignTask;
+import core.KMeansConfig;
+import core.RecomputeCentroidsTask;
+import model.Assignment;
+import model.Cluster;
+import model.Point;
+import model.PointMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Centroid update over Point-list clusters ({@link RecomputeCentroidsTask}), the object-based path
+ * the fused assignment pass replaced; kept as a baseline for the O(k*d) update from merged sums
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RecomputeCentroidsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"8", "32"})
+    public int k;
+
+    @Param({"2", "16"})
+    public int d;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private List<Cluster> clusters;
+    private KMeansConfig config;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        PointMatrix data = BenchmarkData.synthetic(n, d);
+        List<Point> points = data.toPoints();
+        clusters = BenchmarkData.clusters(data, k);
+        config = new KMeansConfig(k, 1, 0.0);
+        pool = new ForkJoinPool(threads);
+
+        // Bind the clusters to one assignment; recomputing then always averages the same members
+        int[] labels = new int[n];
+        int[] counts = pool.invoke(new KMeansAssignTask(data, 0, n, clusters, labels)).getCounts();
+        new Assignment(labels, counts, points::get).bind(clusters);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public boolean recompute() {
+        return pool.invoke(new RecomputeCentroidsTask(clusters, 0, clusters.size(), config));
+    }
+}
@@ -0,0 +1,56 @@
+package bonus;
+
+import model.Cluster;
+import model.DataSet;
+import util.SamplingUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/**
+ * How initial centroids are chosen before a run; the clusters it returns are meant for
+ * {@code setInitialClusters} of any engine
+ */
+public enum InitializationStrategy {
+    /** k distinct rows drawn uniformly */
+    RANDOM("Random"),
+
+    /** k-means++: k passes over the data, each row drawn in proportion to its squared distance */
+    K_MEANS_PLUS_PLUS("k-means++"),
+
+    /** k-means||: a few oversampling passes, then k-means++ over the weighted candidates; suits very large n */
+    K_MEANS_PARALLEL("k-means||");
+
+    private final String displayName;
+
+    InitializationStrategy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public List<Cluster> initialClusters(DataSet data, int k, RandomGenerator random, ForkJoinPool pool) {
+        switch (this) {
+            case K_MEANS_PLUS_PLUS:
+                return KMeansPlusPlusInitializer.initializeClusters(data, k, random, pool);
+            case K_MEANS_PARALLEL:
+                return KMeansParallelInitializer.initializeClusters(data, k, random, pool);
+            default:
+                return randomClusters(data, k, random);
+        }
+    }
+
+    private static List<Cluster> randomClusters(DataSet data, int k, RandomGenerator random) {
+        k = Math.min(k, data.size());
+        List<Cluster> clusters = new ArrayList<>(k);
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(data.getPoint(row)));
+        }
+        return clusters;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
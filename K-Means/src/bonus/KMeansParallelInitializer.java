@@ -0,0 +1,343 @@
+package bonus;
+
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import model.RowTiles;
+import util.DistanceUtils;
+import util.SamplingUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * k-means|| seeding, "k-means parallel" (Bahmani et al., VLDB 2012). Instead of k sequential passes,
+ * each of a few rounds samples every row independently with probability l * d^2(x) / phi, where
+ * phi is the current cost and l = 2k the oversampling factor, so a round adds about l candidates at
+ * the cost of one parallel pass. Every candidate is then weighted by the rows closest to it, and a
+ * weighted k-means++ over the few hundred candidates picks the k centroids.
+ *
+ * Both the sampling and the distance updates run as fork/join tasks over leaves of
+ * {@value #LEAF_ROWS} rows. Each leaf draws from its own split of the round's generator, taken in leaf
+ * order before forking, so the candidates depend on the seed and not on the scheduling.
+ */
+public class KMeansParallelInitializer {
+
+    public static final int DEFAULT_ROUNDS = 5;
+    private static final int LEAF_ROWS = 4096; // rows per sampling / distance-update task
+
+    public static List<Point> initializeCentroids(DataSet data, int k, RandomGenerator random) {
+        return initializeCentroids(data, k, random, ForkJoinPool.commonPool());
+    }
+
+    public static List<Point> initializeCentroids(DataSet data, int k, RandomGenerator random, ForkJoinPool pool) {
+        return initializeCentroids(data, k, DEFAULT_ROUNDS, 2.0 * k, random, pool);
+    }
+
+    /**
+     * @param rounds       sampling rounds after the first, uniformly drawn, candidate
+     * @param oversampling expected candidates added per round (l)
+     */
+    public static List<Point> initializeCentroids(DataSet data, int k, int rounds, double oversampling,
+                                                  RandomGenerator random, ForkJoinPool pool) {
+        if (data == null || data.size() == 0) {
+            throw new IllegalArgumentException("Dataset cannot be null or empty");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if (rounds < 0) {
+            throw new IllegalArgumentException("rounds must be non-negative");
+        }
+        if (!(oversampling > 0)) {
+            throw new IllegalArgumentException("oversampling must be positive");
+        }
+        if (random == null) {
+            throw new IllegalArgumentException("Random generator cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        int n = data.size();
+        int dim = data.getDimension();
+        if (k > n) {
+            k = n;
+        }
+
+        double[] minDistancesSquared = new double[n];
+        Arrays.fill(minDistancesSquared, Double.POSITIVE_INFINITY);
+        int[] nearest = new int[n];           // candidate closest to each row
+        int leaves = (n + LEAF_ROWS - 1) / LEAF_ROWS;
+        double[] leafSums = new double[leaves];
+        int[][] sampled = new int[leaves][];
+
+        // Step 1: one candidate uniformly at random
+        List<Integer> candidateRows = new ArrayList<>();
+        boolean[] isCandidate = new boolean[n]; // a row enters the candidates at most once
+        int firstRow = random.nextInt(n);
+        candidateRows.add(firstRow);
+        isCandidate[firstRow] = true;
+        pool.invoke(new UpdateTask(data, candidateCoords(data, candidateRows, 0), 0,
+                minDistancesSquared, nearest, leafSums, 0, leaves));
+
+        // Step 2: oversample rows in proportion to their squared distance, a round at a time
+        for (int round = 0; round < rounds; round++) {
+            double cost = sum(leafSums);
+            if (!(cost > 0)) {
+                break; // every row already coincides with a candidate
+            }
+            pool.invoke(new SampleTask(minDistancesSquared, oversampling / cost, sampled,
+                    new SplittableRandom(random.nextLong()), 0, leaves));
+            int first = candidateRows.size();
+            for (int[] rows : sampled) {
+                for (int row : rows) {
+                    if (!isCandidate[row]) {
+                        isCandidate[row] = true;
+                        candidateRows.add(row);
+                    }
+                }
+            }
+            if (candidateRows.size() == first) {
+                continue;
+            }
+            pool.invoke(new UpdateTask(data, candidateCoords(data, candidateRows, first), first,
+                    minDistancesSquared, nearest, leafSums, 0, leaves));
+        }
+
+        // Step 3: weight each candidate by the rows it is closest to
+        int m = candidateRows.size();
+        double[] weights = new double[m];
+        for (int i = 0; i < n; i++) {
+            weights[nearest[i]]++;
+        }
+
+        // Step 4: reduce the weighted candidates to k with k-means++
+        double[] candidates = candidateCoords(data, candidateRows, 0);
+        List<Point> centroids = new ArrayList<>(k);
+        int[] chosen = weightedKMeansPlusPlus(candidates, weights, m, dim, Math.min(k, m), random);
+        for (int c : chosen) {
+            centroids.add(data.getPoint(candidateRows.get(c)));
+        }
+        // Too few candidates, or the rest all coincide with chosen ones (tiny or heavily duplicated
+        // data): top up with random rows not picked yet; k distinct draws hold at least
+        // k - centroids.size() such rows
+        if (centroids.size() < k) {
+            boolean[] picked = new boolean[n];
+            for (int c : chosen) {
+                picked[candidateRows.get(c)] = true;
+            }
+            for (int row : SamplingUtils.randomDistinctRows(n, k, random)) {
+                if (centroids.size() == k) {
+                    break;
+                }
+                if (!picked[row]) {
+                    picked[row] = true;
+                    centroids.add(data.getPoint(row));
+                }
+            }
+        }
+        return centroids;
+    }
+
+    public static List<Cluster> initializeClusters(DataSet data, int k, RandomGenerator random) {
+        return toClusters(initializeCentroids(data, k, random));
+    }
+
+    public static List<Cluster> initializeClusters(DataSet data, int k, RandomGenerator random, ForkJoinPool pool) {
+        return toClusters(initializeCentroids(data, k, random, pool));
+    }
+
+    private static List<Cluster> toClusters(List<Point> centroids) {
+        List<Cluster> clusters = new ArrayList<>();
+        for (Point centroid : centroids) {
+            clusters.add(new Cluster(centroid));
+        }
+        return clusters;
+    }
+
+    // Flat coordinates of candidates [from, size)
+    private static double[] candidateCoords(DataSet data, List<Integer> candidateRows, int from) {
+        int dim = data.getDimension();
+        double[] coords = new double[(candidateRows.size() - from) * dim];
+        for (int c = from; c < candidateRows.size(); c++) {
+            data.copyRow(candidateRows.get(c), coords, (c - from) * dim);
+        }
+        return coords;
+    }
+
+    // k-means++ where a candidate's chance is its weight times its squared distance; returns candidate
+    // indexes, fewer than k once every remaining candidate coincides with a chosen one
+    private static int[] weightedKMeansPlusPlus(double[] candidates, double[] weights, int m, int dim, int k,
+                                                RandomGenerator random) {
+        int[] chosen = new int[k];
+        double[] minDistancesSquared = new double[m];
+        Arrays.fill(minDistancesSquared, Double.POSITIVE_INFINITY);
+
+        chosen[0] = sample(weights, null, random);
+        for (int i = 1; i < k; i++) {
+            int newest = chosen[i - 1] * dim;
+            for (int c = 0; c < m; c++) {
+                double d = DistanceUtils.squaredDistance(candidates, c * dim, candidates, newest, dim);
+                if (d < minDistancesSquared[c]) {
+                    minDistancesSquared[c] = d;
+                }
+            }
+            chosen[i] = sample(weights, minDistancesSquared, random);
+            if (chosen[i] < 0) {
+                return Arrays.copyOf(chosen, i); // the top-up fills the remaining slots with distinct rows
+            }
+        }
+        return chosen;
+    }
+
+    // Index drawn with probability proportional to weights[c] * (distances == null ? 1 : distances[c]);
+    // -1 when every product is zero
+    private static int sample(double[] weights, double[] distances, RandomGenerator random) {
+        double total = 0.0;
+        for (int c = 0; c < weights.length; c++) {
+            total += weights[c] * (distances == null ? 1.0 : distances[c]);
+        }
+        if (!(total > 0)) {
+            return -1;
+        }
+        double randomValue = random.nextDouble() * total;
+        double cumulative = 0.0;
+        int lastWeighted = 0;
+        for (int c = 0; c < weights.length; c++) {
+            double w = weights[c] * (distances == null ? 1.0 : distances[c]);
+            if (w > 0) {
+                cumulative += w;
+                lastWeighted = c;
+                if (cumulative > randomValue) {
+                    return c;
+                }
+            }
+        }
+        return lastWeighted;
+    }
+
+    private static double sum(double[] values) {
+        double total = 0.0;
+        for (double v : values) {
+            total += v;
+        }
+        return total;
+    }
+
+    /**
+     * Lowers each row's distance with a batch of new candidates, numbered from firstCandidate, and
+     * refreshes the leaf sums over leaves [fromLeaf, toLeaf)
+     */
+    private static final class UpdateTask extends RecursiveAction {
+        private final DataSet data;
+        private final double[] batch;
+        private final int firstCandidate;
+        private final double[] minDistancesSquared;
+        private final int[] nearest;
+        private final double[] leafSums;
+        private final int fromLeaf;
+        private final int toLeaf;
+
+        UpdateTask(DataSet data, double[] batch, int firstCandidate, double[] minDistancesSquared, int[] nearest,
+                   double[] leafSums, int fromLeaf, int toLeaf) {
+            this.data = data;
+            this.batch = batch;
+            this.firstCandidate = firstCandidate;
+            this.minDistancesSquared = minDistancesSquared;
+            this.nearest = nearest;
+            this.leafSums = leafSums;
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (toLeaf - fromLeaf == 1) {
+                updateLeaf(fromLeaf);
+                return;
+            }
+            int mid = (fromLeaf + toLeaf) >>> 1;
+            invokeAll(new UpdateTask(data, batch, firstCandidate, minDistancesSquared, nearest, leafSums, fromLeaf, mid),
+                    new UpdateTask(data, batch, firstCandidate, minDistancesSquared, nearest, leafSums, mid, toLeaf));
+        }
+
+        private void updateLeaf(int leaf) {
+            int dim = data.getDimension();
+            int batchSize = batch.length / dim;
+            int[] batchNearest = new int[RowTiles.TILE_ROWS];
+            double[] batchDistances = new double[RowTiles.TILE_ROWS];
+            int from = leaf * LEAF_ROWS;
+            int to = Math.min(from + LEAF_ROWS, data.size());
+            double sum = 0.0;
+            RowTiles tiles = data.tiles(from, to);
+            while (tiles.next()) {
+                DistanceUtils.nearestCentroids(tiles.rows(), tiles.offset(), tiles.count(),
+                        batch, batchSize, dim, batchNearest, 0, batchDistances);
+                for (int r = 0, i = tiles.first(); r < tiles.count(); r++, i++) {
+                    if (batchDistances[r] < minDistancesSquared[i]) {
+                        minDistancesSquared[i] = batchDistances[r];
+                        nearest[i] = firstCandidate + batchNearest[r];
+                    }
+                    sum += minDistancesSquared[i];
+                }
+            }
+            leafSums[leaf] = sum;
+        }
+    }
+
+    /**
+     * Independent Bernoulli draw per row with probability min(1, scale * d^2) over leaves
+     * [fromLeaf, toLeaf); each leaf's sampled rows land in sampled[leaf]
+     */
+    private static final class SampleTask extends RecursiveAction {
+        private final double[] minDistancesSquared;
+        private final double scale;
+        private final int[][] sampled;
+        private final SplittableRandom random;
+        private final int fromLeaf;
+        private final int toLeaf;
+
+        SampleTask(double[] minDistancesSquared, double scale, int[][] sampled, SplittableRandom random,
+                   int fromLeaf, int toLeaf) {
+            this.minDistancesSquared = minDistancesSquared;
+            this.scale = scale;
+            this.sampled = sampled;
+            this.random = random;
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (toLeaf - fromLeaf == 1) {
+                sampleLeaf(fromLeaf);
+                return;
+            }
+            int mid = (fromLeaf + toLeaf) >>> 1;
+            // the left half gets a split, taken here before either half runs
+            invokeAll(new SampleTask(minDistancesSquared, scale, sampled, random.split(), fromLeaf, mid),
+                    new SampleTask(minDistancesSquared, scale, sampled, random, mid, toLeaf));
+        }
+
+        private void sampleLeaf(int leaf) {
+            int from = leaf * LEAF_ROWS;
+            int to = Math.min(from + LEAF_ROWS, minDistancesSquared.length);
+            int[] rows = new int[8];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (minDistancesSquared[i] > 0 && random.nextDouble() < scale * minDistancesSquared[i]) {
+                    if (count == rows.length) {
+                        rows = Arrays.copyOf(rows, count * 2);
+                    }
+                    rows[count++] = i;
+                }
+            }
+            sampled[leaf] = Arrays.copyOf(rows, count);
+        }
+    }
+}
@@ -1,85 +1,210 @@
 package bonus;
 
 import model.Cluster;
+import model.DataSet;
 import model.Point;
+import model.PointMatrix;
+import model.RowTiles;
 import util.DistanceUtils;
-import util.RandomUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
 
 
+/**
+ * k-means++ seeding (Arthur and Vassilvitskii, 2007). The overloads without a generator draw from
+ * an unseeded one; pass {@link core.KMeansConfig#newRandom()} to make the seeding reproducible.
+ *
+ * Each row's squared distance to its nearest chosen centroid is kept between steps, so a step only
+ * measures the rows against the newest centroid: O(n*k*d) in total instead of O(n*k^2*d). The update
+ * runs as fork/join tasks over fixed leaves of {@value #LEAF_ROWS} rows, each also summing its slice;
+ * sampling then walks the running sum of the leaf totals before scanning a single leaf.
+ */
 public class KMeansPlusPlusInitializer {
 
+    private static final int LEAF_ROWS = 4096; // rows per distance-update task and per sampling leaf
+
 
     public static List<Point> initializeCentroids(List<Point> points, int k) {
+        return initializeCentroids(points, k, new SplittableRandom());
+    }
+
+    public static List<Point> initializeCentroids(List<Point> points, int k, RandomGenerator random) {
         if (points == null || points.isEmpty()) {
             throw new IllegalArgumentException("Points list cannot be null or empty");
         }
+        return initializeCentroids(PointMatrix.fromPoints(points), k, random);
+    }
+
+    public static List<Point> initializeCentroids(DataSet data, int k) {
+        return initializeCentroids(data, k, new SplittableRandom());
+    }
+
+    public static List<Point> initializeCentroids(DataSet data, int k, RandomGenerator random) {
+        return initializeCentroids(data, k, random, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * k-means++ with the distance updates run as fork/join tasks on the given pool
+     */
+    public static List<Point> initializeCentroids(DataSet data, int k, RandomGenerator random, ForkJoinPool pool) {
+        if (data == null || data.size() == 0) {
+            throw new IllegalArgumentException("Dataset cannot be null or empty");
+        }
         if (k <= 0) {
             throw new IllegalArgumentException("k must be positive");
         }
-        if (k > points.size()) {
-           k = points.size();
+        if (random == null) {
+            throw new IllegalArgumentException("Random generator cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (k > data.size()) {
+           k = data.size();
         }
 
+        int n = data.size();
+        // Squared distance from each row to its nearest chosen centroid, kept across steps,
+        // plus the sum of every leaf's slice of it
+        double[] minDistancesSquared = new double[n];
+        Arrays.fill(minDistancesSquared, Double.POSITIVE_INFINITY);
+        double[] leafSums = new double[(n + LEAF_ROWS - 1) / LEAF_ROWS];
+
         List<Point> centroids = new ArrayList<>();
         
         // Step 1: Choose first centroid uniformly at random
-        int firstIndex = RandomUtils.nextInt(points.size());
-        centroids.add(new Point(points.get(firstIndex).getCoordinates()));
+        int firstIndex = random.nextInt(n);
+        centroids.add(data.getPoint(firstIndex));
         
         
         // Step 2: Choose remaining k-1 centroids using weighted probability
         for (int i = 1; i < k; i++) {
-            Point nextCentroid = selectNextCentroid(points, centroids);
-            centroids.add(nextCentroid);
+            // Only the newest centroid can lower a row's distance
+            double[] newest = centroids.get(i - 1).getCoordinates();
+            pool.invoke(new DistanceUpdateTask(data, newest, minDistancesSquared, leafSums, 0, leafSums.length));
+            int next = sampleRow(minDistancesSquared, leafSums, random);
+            centroids.add(data.getPoint(next));
         }
         
         return centroids;
     }
-    
-    private static Point selectNextCentroid(List<Point> points, List<Point> existingCentroids) {
-        // Calculate minimum squared distance from each point to nearest existing centroid
-        double[] minDistancesSquared = new double[points.size()];
-        double totalDistanceSquared = 0.0;
-        
-        for (int i = 0; i < points.size(); i++) {
-            Point p = points.get(i);
-            double minDistSquared = Double.MAX_VALUE;
-            
-            // Find minimum distance to any existing centroid
-            for (Point centroid : existingCentroids) {
-                double dist = DistanceUtils.distance(p, centroid);
-                double distSquared = dist * dist;
-                if (distSquared < minDistSquared) {
-                    minDistSquared = distSquared;
+
+    // Select a row with probability proportional to its squared distance: locate the leaf through the
+    // running sum of the leaf totals, then the row within that leaf
+    private static int sampleRow(double[] minDistancesSquared, double[] leafSums, RandomGenerator random) {
+        double total = 0.0;
+        for (double leafSum : leafSums) {
+            total += leafSum;
+        }
+        if (!(total > 0)) {
+            // every row coincides with a chosen centroid
+            return random.nextInt(minDistancesSquared.length);
+        }
+
+        double randomValue = random.nextDouble() * total;
+        int leaf = 0;
+        while (leaf < leafSums.length - 1 && randomValue >= leafSums[leaf]) {
+            randomValue -= leafSums[leaf];
+            leaf++;
+        }
+
+        int from = leaf * LEAF_ROWS;
+        int to = Math.min(from + LEAF_ROWS, minDistancesSquared.length);
+        double cumulative = 0.0;
+        int lastWeighted = -1;
+        for (int i = from; i < to; i++) {
+            if (minDistancesSquared[i] > 0) {
+                cumulative += minDistancesSquared[i];
+                lastWeighted = i;
+                if (cumulative > randomValue) {
+                    return i;
                 }
             }
-            
-            minDistancesSquared[i] = minDistSquared;
-            totalDistanceSquared += minDistSquared;
         }
-        
-        // Select a point with probability proportional to squared distance
-        double randomValue = RandomUtils.nextDouble() * totalDistanceSquared;
-        double cumulative = 0.0;
-        
-        for (int i = 0; i < points.size(); i++) {
-            cumulative += minDistancesSquared[i];
-            if (cumulative >= randomValue) {
-                // Return a copy of the point to avoid reference issues
-                return new Point(points.get(i).getCoordinates());
+        // rounding left the value just past the leaf's last weighted row
+        return lastWeighted >= 0 ? lastWeighted : to - 1;
+    }
+
+    /**
+     * Lowers each row's distance to the newest centroid's and refreshes the leaf sums over leaves
+     * [fromLeaf, toLeaf); splits in halves of leaves until one leaf is left
+     */
+    private static final class DistanceUpdateTask extends RecursiveAction {
+        private final DataSet data;
+        private final double[] centroid;
+        private final double[] minDistancesSquared;
+        private final double[] leafSums;
+        private final int fromLeaf;
+        private final int toLeaf;
+
+        DistanceUpdateTask(DataSet data, double[] centroid, double[] minDistancesSquared, double[] leafSums,
+                           int fromLeaf, int toLeaf) {
+            this.data = data;
+            this.centroid = centroid;
+            this.minDistancesSquared = minDistancesSquared;
+            this.leafSums = leafSums;
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (toLeaf - fromLeaf == 1) {
+                updateLeaf(fromLeaf);
+                return;
             }
+            int mid = (fromLeaf + toLeaf) >>> 1;
+            invokeAll(new DistanceUpdateTask(data, centroid, minDistancesSquared, leafSums, fromLeaf, mid),
+                    new DistanceUpdateTask(data, centroid, minDistancesSquared, leafSums, mid, toLeaf));
+        }
+
+        private void updateLeaf(int leaf) {
+            int dim = data.getDimension();
+            int from = leaf * LEAF_ROWS;
+            int to = Math.min(from + LEAF_ROWS, data.size());
+            double sum = 0.0;
+            RowTiles tiles = data.tiles(from, to);
+            while (tiles.next()) {
+                double[] rows = tiles.rows();
+                for (int i = tiles.first(), offset = tiles.offset(); i < tiles.last(); i++, offset += dim) {
+                    double d = DistanceUtils.squaredDistance(rows, offset, centroid, 0, dim);
+                    if (d < minDistancesSquared[i]) {
+                        minDistancesSquared[i] = d;
+                    }
+                    sum += minDistancesSquared[i];
+                }
+            }
+            leafSums[leaf] = sum;
         }
-        
-        // Fallback (shouldn't reach here, but just in case)
-        int lastIndex = points.size() - 1;
-        return new Point(points.get(lastIndex).getCoordinates());
     }
     
     public static List<Cluster> initializeClusters(List<Point> points, int k) {
-        List<Point> centroids = initializeCentroids(points, k);
+        return toClusters(initializeCentroids(points, k));
+    }
+
+    public static List<Cluster> initializeClusters(List<Point> points, int k, RandomGenerator random) {
+        return toClusters(initializeCentroids(points, k, random));
+    }
+
+    public static List<Cluster> initializeClusters(DataSet data, int k) {
+        return toClusters(initializeCentroids(data, k));
+    }
+
+    public static List<Cluster> initializeClusters(DataSet data, int k, RandomGenerator random) {
+        return toClusters(initializeCentroids(data, k, random));
+    }
+
+    public static List<Cluster> initializeClusters(DataSet data, int k, RandomGenerator random, ForkJoinPool pool) {
+        return toClusters(initializeCentroids(data, k, random, pool));
+    }
+
+    private static List<Cluster> toClusters(List<Point> centroids) {
         List<Cluster> clusters = new ArrayList<>();
         
         for (Point centroid : centroids) {
@@ -0,0 +1,219 @@
+package bonus;
+
+import core.KMeansConfig;
+import core.KMeansEngine;
+import model.Cluster;
+import model.Point;
+import model.PointMatrix;
+import model.RowTiles;
+import util.DistanceUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Clusters the same data for every k in [kMin, kMax] and returns the SSE-vs-k curve with its elbow.
+ *
+ * The k range is cut into contiguous chains that run concurrently on a fixed pool of platform
+ * threads, all reading one {@link PointMatrix} built per call to {@link #run()}. Within a chain only
+ * the first k starts from k-means++; every later k is warm-started from the converged centroids of
+ * k - 1 plus one k-means++ draw (a row picked with probability proportional to its squared distance
+ * to those centroids). Starting that close to a solution, k converges in a fraction of a cold run's
+ * iterations, and since the extra centroid can only lower the starting SSE, the curve never rises
+ * within a chain. Each chain draws from its own split of {@link KMeansConfig#newRandom()}, so a sweep
+ * is reproducible from the config's seed for a given number of chains.
+ *
+ * The chain count trades concurrency against warm starts: every chain pays one cold k-means++ run,
+ * and a chain of a single k has no warm start at all. By default a chain therefore covers at least
+ * {@value #MIN_CHAIN_LENGTH} consecutive k, so a 23-value sweep runs at most 5 chains however many
+ * cores there are, and most of its k are still warm-started.
+ */
+public class KSweep {
+
+    public static final int MIN_CHAIN_LENGTH = 4; // consecutive k per chain by default, so most k warm-start
+
+    private final KMeansConfig config;
+    private final List<Point> points;
+    private final int kMin;
+    private final int kMax;
+    private final boolean useParallel;
+    private final int chains;
+
+    /**
+     * Sequential engines run one chain per core, each covering at least {@value #MIN_CHAIN_LENGTH} k;
+     * parallel engines already use every core, so one chain warm-starts the whole range and no two k
+     * run at once. For concurrent chains, sweep with sequential engines.
+     */
+    public KSweep(KMeansConfig config, List<Point> points, int kMin, int kMax, boolean useParallel) {
+        this(config, points, kMin, kMax, useParallel, useParallel ? 1 : Math.max(1, Math.min(
+                Runtime.getRuntime().availableProcessors(), (kMax - kMin + 1) / MIN_CHAIN_LENGTH)));
+    }
+
+    /**
+     * @param chains number of chains, capped at the number of k; 1 warm-starts every k from the previous one
+     */
+    public KSweep(KMeansConfig config, List<Point> points, int kMin, int kMax, boolean useParallel, int chains) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("Points list cannot be null or empty");
+        }
+        if (kMin <= 0) {
+            throw new IllegalArgumentException("Smallest k must be positive");
+        }
+        if (kMax < kMin) {
+            throw new IllegalArgumentException("Largest k must not be below the smallest");
+        }
+        if (kMax > points.size()) {
+            throw new IllegalArgumentException("Largest k cannot exceed the number of points");
+        }
+        if (chains <= 0) {
+            throw new IllegalArgumentException("Number of chains must be positive");
+        }
+
+        this.config = config;
+        this.points = new ArrayList<>(points); // Create a copy
+        this.kMin = kMin;
+        this.kMax = kMax;
+        this.useParallel = useParallel;
+        this.chains = Math.min(chains, kMax - kMin + 1);
+    }
+
+    public KSweepResult run() {
+        int count = kMax - kMin + 1;
+        System.out.println("Sweeping k = " + kMin + ".." + kMax + " with " +
+                (useParallel ? "parallel" : "sequential") + " implementation, " + chains + " chain(s)");
+
+        // One copy of the coordinates, shared read-only by every chain
+        PointMatrix data = PointMatrix.fromPoints(points);
+
+        int[] kValues = new int[count];
+        double[] sse = new double[count];
+        int[] iterations = new int[count];
+        long[] times = new long[count];
+        List<List<Cluster>> clusters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            kValues[i] = kMin + i;
+            clusters.add(null);
+        }
+
+        // Chain c covers k indexes [c*count/chains, (c+1)*count/chains); splits taken in chain order
+        SplittableRandom streams = config.newRandom();
+        List<Callable<Void>> tasks = new ArrayList<>(chains);
+        for (int c = 0; c < chains; c++) {
+            int from = (int) ((long) c * count / chains);
+            int to = (int) ((long) (c + 1) * count / chains);
+            SplittableRandom random = streams.split();
+            tasks.add(() -> {
+                runChain(data, from, to, random, sse, iterations, times, clusters);
+                return null;
+            });
+        }
+
+        long wallStart = System.currentTimeMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(chains, task -> {
+            Thread thread = new Thread(task, "ksweep-chain-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<Void> chain : executor.invokeAll(tasks)) {
+                chain.get(); // rethrows a failed chain
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the sweep", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sweep failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long wallTime = System.currentTimeMillis() - wallStart;
+
+        KSweepResult result = new KSweepResult(kValues, sse, iterations, times, clusters, wallTime);
+        System.out.println("Elbow at k = " + result.getElbowK() + ", Total time: " + result.getTotalTime() +
+                "ms, Wall time: " + wallTime + "ms, Iterations: " + result.getTotalIterations());
+        return result;
+    }
+
+    // k indexes [from, to): a cold k-means++ start, then each k warm-started from the one before
+    private void runChain(PointMatrix data, int from, int to, SplittableRandom random,
+                          double[] sse, int[] iterations, long[] times, List<List<Cluster>> clusters) {
+        List<Cluster> previous = null;
+        for (int i = from; i < to; i++) {
+            int k = kMin + i;
+            long startTime = System.currentTimeMillis();
+
+            KMeansConfig runConfig = config.withSeed(random.nextLong());
+            runConfig.setK(k);
+            List<Cluster> seeds = previous == null
+                    ? KMeansPlusPlusInitializer.initializeClusters(data, k, random, config.getPool())
+                    : warmStart(data, previous, random);
+            KMeansEngine engine = KMeansEngine.create(runConfig, data, useParallel);
+            engine.setInitialClusters(seeds);
+            engine.run();
+
+            previous = engine.getClusters();
+            sse[i] = engine.computeSSE();
+            iterations[i] = engine.getIterationsCompleted();
+            times[i] = System.currentTimeMillis() - startTime;
+            clusters.set(i, previous);
+        }
+    }
+
+    // Converged centroids of k - 1 plus one row drawn with probability proportional to its squared distance to them
+    private static List<Cluster> warmStart(PointMatrix data, List<Cluster> previous, RandomGenerator random) {
+        int n = data.size();
+        int dim = data.getDimension();
+        double[] centroids = PointMatrix.fromCentroids(previous).getData();
+        double[] minDistancesSquared = new double[n];
+        int[] nearest = new int[RowTiles.TILE_ROWS];
+        double[] distances = new double[RowTiles.TILE_ROWS];
+        double total = 0.0;
+
+        RowTiles tiles = data.tiles(0, n);
+        while (tiles.next()) {
+            DistanceUtils.nearestCentroids(tiles.rows(), tiles.offset(), tiles.count(), centroids, previous.size(),
+                    dim, nearest, 0, distances);
+            System.arraycopy(distances, 0, minDistancesSquared, tiles.first(), tiles.count());
+            for (int r = 0; r < tiles.count(); r++) {
+                total += distances[r];
+            }
+        }
+
+        int row;
+        if (!(total > 0)) {
+            row = random.nextInt(n); // every row already sits on a centroid
+        } else {
+            double randomValue = random.nextDouble() * total;
+            double cumulative = 0.0;
+            row = -1;
+            for (int i = 0; i < n; i++) {
+                if (minDistancesSquared[i] > 0) {
+                    cumulative += minDistancesSquared[i];
+                    row = i; // last weighted row, should rounding leave cumulative short of randomValue
+                    if (cumulative > randomValue) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<Cluster> seeds = new ArrayList<>(previous.size() + 1);
+        for (Cluster cluster : previous) {
+            seeds.add(new Cluster(new Point(cluster.getCentroid().getCoordinates())));
+        }
+        seeds.add(new Cluster(data.getPoint(row)));
+        return seeds;
+    }
+}
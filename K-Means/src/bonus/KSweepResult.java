@@ -0,0 +1,127 @@
+package bonus;
+
+import model.Cluster;
+
+import java.util.List;
+
+/**
+ * SSE-vs-k curve of a {@link KSweep}, with the clustering found for every k and the elbow of the curve
+ */
+public class KSweepResult {
+    private final int[] kValues;
+    private final double[] sse;
+    private final int[] iterations;
+    private final long[] times;
+    private final List<List<Cluster>> clusters;
+    private final long wallTime;
+    private final int elbowK;
+
+    /**
+     * @param kValues    the swept k, consecutive and ascending
+     * @param sse        SSE of the clustering found for kValues[i]
+     * @param iterations iterations its run took
+     * @param times      its run time in ms, seeding included
+     * @param clusters   its clusters
+     * @param wallTime   elapsed ms for the whole sweep; below the sum of times when chains overlap
+     */
+    public KSweepResult(int[] kValues, double[] sse, int[] iterations, long[] times, List<List<Cluster>> clusters,
+                        long wallTime) {
+        this.kValues = kValues;
+        this.sse = sse;
+        this.iterations = iterations;
+        this.times = times;
+        this.clusters = clusters;
+        this.wallTime = wallTime;
+        this.elbowK = kValues[elbowIndex(kValues, sse)];
+    }
+
+    /**
+     * Kneedle-style elbow: with k and SSE both scaled to [0, 1], the point furthest below the chord
+     * from the first point of the curve to the last. The first k when fewer than three were swept.
+     */
+    static int elbowIndex(int[] kValues, double[] sse) {
+        int m = kValues.length;
+        if (m < 3) {
+            return 0;
+        }
+        double kSpan = kValues[m - 1] - kValues[0];
+        double sseSpan = sse[0] - sse[m - 1];
+        if (!(sseSpan > 0)) {
+            return 0; // flat or rising curve: no elbow
+        }
+        int best = 0;
+        double bestGap = 0.0;
+        for (int i = 1; i < m - 1; i++) {
+            double x = (kValues[i] - kValues[0]) / kSpan;
+            double y = (sse[i] - sse[m - 1]) / sseSpan;  // 1 at the first k, 0 at the last
+            double gap = (1.0 - x) - y;                  // chord minus curve
+            if (gap > bestGap) {
+                bestGap = gap;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    public int[] getKValues() {
+        return kValues.clone();
+    }
+
+    public double[] getSSECurve() {
+        return sse.clone();
+    }
+
+    public double getSSE(int k) {
+        return sse[indexOf(k)];
+    }
+
+    public int getIterations(int k) {
+        return iterations[indexOf(k)];
+    }
+
+    public long getTime(int k) {
+        return times[indexOf(k)];
+    }
+
+    public List<Cluster> getClusters(int k) {
+        return clusters.get(indexOf(k));
+    }
+
+    /**
+     * k at the elbow of the SSE curve
+     */
+    public int getElbowK() {
+        return elbowK;
+    }
+
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Sum of the per-k run times in ms
+     */
+    public long getTotalTime() {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return total;
+    }
+
+    public long getTotalIterations() {
+        long total = 0;
+        for (int count : iterations) {
+            total += count;
+        }
+        return total;
+    }
+
+    private int indexOf(int k) {
+        int index = k - kValues[0];
+        if (index < 0 || index >= kValues.length) {
+            throw new IllegalArgumentException("k = " + k + " was not swept");
+        }
+        return index;
+    }
+}
@@ -1,28 +1,73 @@
 package bonus;
 
 import core.KMeansConfig;
-import core.KMeansParallel;
-import core.KMeansSequential;
+import core.KMeansEngine;
 import evaluation.SSECalculator;
 import model.Cluster;
 import model.Point;
-import util.RandomUtils;
+import model.PointMatrix;
+import util.DistanceUtils;
+import util.SamplingUtils;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-
+/**
+ * Runs K-Means several times from different initial centroids and keeps the run with the lowest SSE.
+ * Restarts are independent, so up to {@code maxConcurrentRestarts} of them run at once on a fixed
+ * pool of platform threads; all of them read the same {@link PointMatrix}, built once per call to
+ * {@link #run()}. Results are reduced as they complete, so only the best clustering so far is kept.
+ * Each restart draws from its own split of {@link KMeansConfig#newRandom()}, so a run is
+ * reproducible from the config's seed whatever the concurrency.
+ *
+ * With {@link #setRacing} the restarts race by successive halving instead of each running to
+ * convergence: all survivors advance a few iterations in lockstep, are scored, and only the best
+ * fraction goes on to the next round, until one is left to finish.
+ */
 public class MultiStartKMeans {
 
     private final KMeansConfig config;
     private final List<Point> points;
     private final int numRestarts;
-    private final boolean useKMeansPlusPlus;
+    private final InitializationStrategy initialization;
     private final boolean useParallel;
+    private final int maxConcurrentRestarts;
+    private int raceRoundIterations;    // 0 when racing is off
+    private double raceKeepFraction;
+    private int raceSampleSize;         // rows scored per round, 0 for the exact SSE
 
-  
+    /**
+     * Sequential restarts run one per core; parallel restarts already use every core, so they run one at a time
+     */
     public MultiStartKMeans(KMeansConfig config, List<Point> points, 
                            int numRestarts, boolean useKMeansPlusPlus, boolean useParallel) {
+        this(config, points, numRestarts, useKMeansPlusPlus, useParallel,
+                useParallel ? 1 : Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiStartKMeans(KMeansConfig config, List<Point> points,
+                           int numRestarts, boolean useKMeansPlusPlus, boolean useParallel,
+                           int maxConcurrentRestarts) {
+        this(config, points, numRestarts,
+                useKMeansPlusPlus ? InitializationStrategy.K_MEANS_PLUS_PLUS : InitializationStrategy.RANDOM,
+                useParallel, maxConcurrentRestarts);
+    }
+
+    /**
+     * @param maxConcurrentRestarts upper bound on restarts running at the same time; 1 runs them one after another
+     */
+    public MultiStartKMeans(KMeansConfig config, List<Point> points,
+                           int numRestarts, InitializationStrategy initialization, boolean useParallel,
+                           int maxConcurrentRestarts) {
         if (config == null) {
             throw new IllegalArgumentException("Config cannot be null");
         }
@@ -32,111 +77,298 @@ public class MultiStartKMeans {
         if (numRestarts <= 0) {
             throw new IllegalArgumentException("Number of restarts must be positive");
         }
+        if (initialization == null) {
+            throw new IllegalArgumentException("Initialization strategy cannot be null");
+        }
+        if (maxConcurrentRestarts <= 0) {
+            throw new IllegalArgumentException("Number of concurrent restarts must be positive");
+        }
 
         this.config = config;
         this.points = new ArrayList<>(points); // Create a copy
         this.numRestarts = numRestarts;
-        this.useKMeansPlusPlus = useKMeansPlusPlus;
+        this.initialization = initialization;
         this.useParallel = useParallel;
+        this.maxConcurrentRestarts = Math.min(maxConcurrentRestarts, numRestarts);
+    }
+
+    /**
+     * Race the restarts by successive halving: every round each surviving restart runs
+     * roundIterations more iterations, then only the best keepFraction of them (at least one)
+     * survive, ranked by SSE.
+     * @param sampleSize rows scored after each round, drawn once and shared by every restart;
+     *                   0 scores on the exact SSE of all rows
+     */
+    public void setRacing(int roundIterations, double keepFraction, int sampleSize) {
+        if (roundIterations <= 0) {
+            throw new IllegalArgumentException("Iterations per round must be positive");
+        }
+        if (!(keepFraction > 0 && keepFraction < 1)) {
+            throw new IllegalArgumentException("Kept fraction must be in (0, 1)");
+        }
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("Sample size must be non-negative");
+        }
+        this.raceRoundIterations = roundIterations;
+        this.raceKeepFraction = keepFraction;
+        this.raceSampleSize = sampleSize;
+    }
+
+    public boolean isRacing() {
+        return raceRoundIterations > 0;
     }
 
     
     public MultiStartResult run() {
+        System.out.println("Running " + numRestarts + " restarts with " + 
+                          (useParallel ? "parallel" : "sequential") + " implementation" +
+                          " (" + initialization + " initialization)" +
+                          ", " + maxConcurrentRestarts + " at a time" +
+                          (isRacing() ? ", racing " + raceRoundIterations + " iterations per round" : ""));
+
+        // One copy of the coordinates, shared read-only by every restart
+        PointMatrix data = PointMatrix.fromPoints(points);
+
+        // One split of the config's stream per restart, taken in restart order: the result does not
+        // depend on how the restarts are scheduled, and no generator is shared between threads
+        SplittableRandom streams = config.newRandom();
+        SplittableRandom[] restartRandoms = new SplittableRandom[numRestarts];
+        for (int restart = 0; restart < numRestarts; restart++) {
+            restartRandoms[restart] = streams.split();
+        }
+
+        long wallStart = System.currentTimeMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrentRestarts, task -> {
+            Thread thread = new Thread(task, "multistart-restart-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return isRacing()
+                    ? race(data, restartRandoms, streams.split(), executor, wallStart)
+                    : runAll(data, restartRandoms, executor, wallStart);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for restarts", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Restart failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Every restart runs to convergence; results are reduced as they complete
+    private MultiStartResult runAll(PointMatrix data, SplittableRandom[] restartRandoms, ExecutorService executor,
+                                    long wallStart) throws InterruptedException, ExecutionException {
         List<Cluster> bestClusters = null;
         double bestSSE = Double.MAX_VALUE;
         int bestRestart = -1;
         long totalTime = 0;
         int bestIterations = 0;
+        long totalIterations = 0;
 
-        System.out.println("Running " + numRestarts + " restarts with " + 
-                          (useParallel ? "parallel" : "sequential") + " implementation" +
-                          (useKMeansPlusPlus ? " (k-means++ initialization)" : ""));
-
+        ExecutorCompletionService<RestartOutcome> completion = new ExecutorCompletionService<>(executor);
         for (int restart = 0; restart < numRestarts; restart++) {
-            // Set different random seed for each restart to ensure variety
-            RandomUtils.setSeed(System.currentTimeMillis() + restart);
-            
-            long startTime = System.currentTimeMillis();
-            
-            // Run K-means for this restart
-            int iterations = runSingleRestartWithIterations();
-            List<Cluster> clusters = getClustersFromLastRun();
-            
-            long endTime = System.currentTimeMillis();
-            long elapsed = endTime - startTime;
-            totalTime += elapsed;
-
-            // Compute SSE for this clustering
-            double sse = computeSSE(clusters);
-
-            System.out.println("Restart " + (restart + 1) + "/" + numRestarts + 
-                             ": SSE = " + String.format("%.4f", sse) + 
-                             ", Time = " + elapsed + "ms, Iterations: " + iterations);
-
-            // Update best result if this is better
-            if (sse < bestSSE) {
-                bestSSE = sse;
-                bestClusters = deepCopyClusters(clusters);
-                bestRestart = restart + 1;
-                bestIterations = iterations;
+            int restartNumber = restart + 1;
+            SplittableRandom random = restartRandoms[restart];
+            completion.submit(() -> runSingleRestart(data, restartNumber, random));
+        }
+
+        for (int done = 0; done < numRestarts; done++) {
+            RestartOutcome outcome = completion.take().get();
+            totalTime += outcome.elapsed;
+            totalIterations += outcome.iterations;
+
+            System.out.println("Restart " + outcome.restart + "/" + numRestarts + 
+                             ": SSE = " + String.format("%.4f", outcome.sse) + 
+                             ", Time = " + outcome.elapsed + "ms, Iterations: " + outcome.iterations);
+
+            // Update best result if this is better; ties go to the lower restart number
+            if (outcome.sse < bestSSE || (outcome.sse == bestSSE && outcome.restart < bestRestart)) {
+                bestSSE = outcome.sse;
+                bestClusters = outcome.clusters;
+                bestRestart = outcome.restart;
+                bestIterations = outcome.iterations;
             }
         }
+        long wallTime = System.currentTimeMillis() - wallStart;
 
         System.out.println("\nBest result found at restart " + bestRestart + 
                          " with SSE = " + String.format("%.4f", bestSSE));
         System.out.println("Total time: " + totalTime + "ms, Average: " + 
-                         (totalTime / numRestarts) + "ms per restart");
+                         (totalTime / numRestarts) + "ms per restart, Wall time: " + wallTime + "ms");
 
-        return new MultiStartResult(bestClusters, bestSSE, bestRestart, totalTime, bestIterations);
+        return new MultiStartResult(bestClusters, bestSSE, bestRestart, totalTime, bestIterations, wallTime,
+                totalIterations, 0);
     }
-    
-    private KMeansSequential lastSequential = null;
-    private KMeansParallel lastParallel = null;
-    
-    private int runSingleRestartWithIterations() {
-        if (useParallel) {
-            lastParallel = new KMeansParallel(config, points);
-            if (useKMeansPlusPlus) {
-                List<Cluster> initialClusters = KMeansPlusPlusInitializer.initializeClusters(points, config.getK());
-                lastParallel.setInitialClusters(initialClusters);
+
+    // Successive halving: advance all survivors a round, rank them, keep the best fraction
+    private MultiStartResult race(PointMatrix data, SplittableRandom[] restartRandoms, SplittableRandom sampleRandom,
+                                  ExecutorService executor, long wallStart)
+            throws InterruptedException, ExecutionException {
+        List<Racer> alive = new ArrayList<>();
+        for (int restart = 0; restart < numRestarts; restart++) {
+            alive.add(new Racer(restart + 1, restartRandoms[restart]));
+        }
+        List<Racer> abandoned = new ArrayList<>();
+        PointMatrix sample = raceSampleSize > 0 && raceSampleSize < data.size()
+                ? sampleRows(data, raceSampleSize, sampleRandom) : null;
+        Comparator<Racer> byScore = Comparator.<Racer>comparingDouble(r -> r.score).thenComparingInt(r -> r.restart);
+
+        for (int round = 1; ; round++) {
+            List<Callable<Void>> steps = new ArrayList<>();
+            for (Racer racer : alive) {
+                if (!racer.finished) {
+                    steps.add(() -> {
+                        racer.advance(data, raceRoundIterations);
+                        racer.score = sample != null ? sampledSSE(sample, racer.clusters) : racer.engine.computeSSE();
+                        return null;
+                    });
+                }
+            }
+            for (Future<Void> step : executor.invokeAll(steps)) {
+                step.get(); // rethrows a failed restart
             }
-            lastParallel.run();
-            return lastParallel.getIterationsCompleted();
-        } else {
-            lastSequential = new KMeansSequential(config, points);
-            if (useKMeansPlusPlus) {
-                List<Cluster> initialClusters = KMeansPlusPlusInitializer.initializeClusters(points, config.getK());
-                lastSequential.setInitialClusters(initialClusters);
+
+            alive.sort(byScore);
+            boolean allFinished = alive.stream().allMatch(r -> r.finished);
+            System.out.println("Round " + round + ": " + alive.size() + " restarts, best " +
+                    (sample != null ? "sampled " : "") + "SSE = " + String.format("%.4f", alive.get(0).score) +
+                    " (restart " + alive.get(0).restart + ")");
+            if (alive.size() == 1 || allFinished) {
+                break;
+            }
+            int keep = Math.max(1, (int) Math.ceil(alive.size() * raceKeepFraction));
+            abandoned.addAll(alive.subList(keep, alive.size()));
+            alive = new ArrayList<>(alive.subList(0, keep));
+            if (alive.size() == 1) {
+                break;
+            }
+        }
+
+        // Finish the survivor; when several finished together, the exact SSE decides
+        Racer winner = alive.get(0);
+        if (!winner.finished) {
+            winner.advance(data, config.getMaxIterations());
+        }
+        double bestSSE = winner.engine.computeSSE();
+        for (Racer racer : alive.subList(1, alive.size())) {
+            double sse = racer.engine.computeSSE();
+            if (sse < bestSSE) {
+                bestSSE = sse;
+                winner = racer;
             }
-            lastSequential.run();
-            return lastSequential.getIterationsCompleted();
         }
+        long wallTime = System.currentTimeMillis() - wallStart;
+
+        long totalTime = 0;
+        long totalIterations = 0;
+        for (Racer racer : alive) {
+            totalTime += racer.elapsed;
+            totalIterations += racer.iterations;
+        }
+        // Only an estimate: a full run of an abandoned restart is taken to need as many iterations as the winner's
+        long estimatedIterationsSaved = 0;
+        for (Racer racer : abandoned) {
+            totalTime += racer.elapsed;
+            totalIterations += racer.iterations;
+            estimatedIterationsSaved += Math.max(0, winner.iterations - racer.iterations);
+        }
+
+        System.out.println("\nBest result found at restart " + winner.restart +
+                         " with SSE = " + String.format("%.4f", bestSSE));
+        System.out.println("Total time: " + totalTime + "ms, Wall time: " + wallTime + "ms, Iterations: " +
+                         totalIterations + " run, about " + estimatedIterationsSaved + " saved (estimated)");
+
+        return new MultiStartResult(winner.clusters, bestSSE, winner.restart, totalTime, winner.iterations, wallTime,
+                totalIterations, estimatedIterationsSaved);
     }
-    
-    private List<Cluster> getClustersFromLastRun() {
-        if (useParallel) {
-            return lastParallel != null ? lastParallel.getClusters() : new ArrayList<>();
-        } else {
-            return lastSequential != null ? lastSequential.getClusters() : new ArrayList<>();
+
+    // Rows drawn uniformly without replacement; the same sample scores every restart
+    private static PointMatrix sampleRows(PointMatrix data, int size, SplittableRandom random) {
+        int[] rows = SamplingUtils.randomDistinctRows(data.size(), size, random);
+        PointMatrix sample = new PointMatrix(size, data.getDimension());
+        double[] coords = sample.getData();
+        for (int i = 0; i < size; i++) {
+            data.copyRow(rows[i], coords, i * data.getDimension());
         }
+        return sample;
+    }
+
+    // SSE of the sample rows against the restart's current centroids
+    private static double sampledSSE(PointMatrix sample, List<Cluster> clusters) {
+        double[] centroids = PointMatrix.fromCentroids(clusters).getData();
+        int[] nearest = new int[sample.size()];
+        double[] distances = new double[sample.size()];
+        DistanceUtils.nearestCentroids(sample.getData(), 0, sample.size(), centroids, clusters.size(),
+                sample.getDimension(), nearest, 0, distances);
+        return SSECalculator.total(distances);
+    }
+
+    // One restart on its own engine; the engine's clusters are not shared, so they are returned as they are
+    private RestartOutcome runSingleRestart(PointMatrix data, int restart, SplittableRandom random) {
+        long startTime = System.currentTimeMillis();
+
+        // config.getMethod() picks the algorithm; the engine's own choices follow the restart's seed
+        KMeansEngine engine = KMeansEngine.create(config.withSeed(random.nextLong()), data, useParallel);
+        engine.setInitialClusters(initialization.initialClusters(data, config.getK(), random, config.getPool()));
+        engine.run();
+        List<Cluster> clusters = engine.getClusters();
+        double sse = engine.computeSSE(); // from the engine's own passes, not a walk over the Point lists
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        return new RestartOutcome(restart, clusters, sse, engine.getIterationsCompleted(), elapsed);
     }
 
-  
-    private double computeSSE(List<Cluster> clusters) {
-       return SSECalculator.computeSSE(clusters);
+    private static final class RestartOutcome {
+        final int restart;
+        final List<Cluster> clusters;
+        final double sse;
+        final int iterations;
+        final long elapsed;
+
+        RestartOutcome(int restart, List<Cluster> clusters, double sse, int iterations, long elapsed) {
+            this.restart = restart;
+            this.clusters = clusters;
+            this.sse = sse;
+            this.iterations = iterations;
+            this.elapsed = elapsed;
+        }
     }
 
-   
-    private List<Cluster> deepCopyClusters(List<Cluster> clusters) {
-        List<Cluster> copy = new ArrayList<>();
-        for (Cluster original : clusters) {
-            Cluster clusterCopy = new Cluster(new Point(original.getCentroid().getCoordinates()));
-            for (Point p : original.getPoints()) {
-                clusterCopy.addPoint(new Point(p.getCoordinates()));
+    /**
+     * One restart in a race. Its engine lives for the whole race and is advanced a round at a time
+     * with {@link KMeansEngine#advance}, so labels, running sums and bounds carry over between rounds.
+     */
+    private final class Racer {
+        final int restart;
+        final SplittableRandom random;
+        List<Cluster> clusters;     // centroids (and members) after the last round, null before the first
+        KMeansEngine engine;        // created on the first round
+        int iterations;
+        boolean finished;           // converged, or out of iterations
+        double score;
+        long elapsed;
+
+        Racer(int restart, SplittableRandom random) {
+            this.restart = restart;
+            this.random = random;
+        }
+
+        void advance(PointMatrix data, int budget) {
+            long startTime = System.currentTimeMillis();
+            if (engine == null) {
+                KMeansConfig raceConfig = config.withSeed(random.nextLong());
+                raceConfig.setVerbose(false); // one summary line per round would flood the race log
+                engine = KMeansEngine.create(raceConfig, data, useParallel);
+                engine.setInitialClusters(initialization.initialClusters(data, config.getK(), random, config.getPool()));
             }
-            copy.add(clusterCopy);
+            finished = engine.advance(budget);
+            iterations = engine.getIterationsCompleted();
+            clusters = engine.getClusters();
+            elapsed += System.currentTimeMillis() - startTime;
         }
-        return copy;
     }
-    
+
 }
@@ -13,13 +13,31 @@ import java.util.List;
         private final int bestRestart;
         private final long totalTime;
         private final int iterations;
+        private final long wallTime;
+        private final long totalIterations;
+        private final long estimatedIterationsSaved;
 
         public MultiStartResult(List<Cluster> clusters, double sse, int bestRestart, long totalTime, int iterations) {
+            this(clusters, sse, bestRestart, totalTime, iterations, totalTime, iterations, 0);
+        }
+
+        /**
+         * @param totalTime sum of the restarts' own run times in ms
+         * @param wallTime  elapsed ms for the whole multi-start run; below totalTime when restarts overlap
+         * @param totalIterations iterations run by all restarts together
+         * @param estimatedIterationsSaved estimate of the iterations not run because losing restarts were
+         *                                 abandoned early, taking each to need as many as the winner; 0 without racing
+         */
+        public MultiStartResult(List<Cluster> clusters, double sse, int bestRestart, long totalTime, int iterations,
+                                long wallTime, long totalIterations, long estimatedIterationsSaved) {
             this.clusters = clusters;
             this.sse = sse;
             this.bestRestart = bestRestart;
             this.totalTime = totalTime;
             this.iterations = iterations;
+            this.wallTime = wallTime;
+            this.totalIterations = totalIterations;
+            this.estimatedIterationsSaved = estimatedIterationsSaved;
         }
 
         public List<Cluster> getClusters() {
@@ -41,4 +59,19 @@ import java.util.List;
         public int getIterations() {
             return iterations;
         }
+
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        public long getTotalIterations() {
+            return totalIterations;
+        }
+
+        /**
+         * Estimated, not measured: an abandoned restart is assumed to need as many iterations as the winner
+         */
+        public long getEstimatedIterationsSaved() {
+            return estimatedIterationsSaved;
+        }
     }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package core;
+
+import model.DataSet;
+
+/**
+ * Per-row distance bounds of a bounded Lloyd engine ({@link KMeansBounded}). An implementation owns
+ * the labels array it was built with and keeps it in step with the bounds. {@link #setCentroids} is
+ * called by the engine thread between passes; {@link #assign} may then run concurrently on disjoint
+ * row ranges.
+ */
+interface AssignmentBounds {
+
+    /**
+     * Load this iteration's centroids, recording how far each one moved since the previous pass
+     */
+    void setCentroids(double[] centroids);
+
+    /**
+     * Assign rows [from, to) and accumulate their sums and counts. The accumulator's SSE is the sum
+     * of squared upper bounds, which is only an upper bound on the true SSE. With delta set, only the
+     * rows whose label changed are recorded, as moves between clusters for {@link RunningSums}.
+     */
+    ClusterAccumulator assign(DataSet data, int from, int to, boolean delta);
+}
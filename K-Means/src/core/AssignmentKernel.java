@@ -0,0 +1,41 @@
+package core;
+
+import model.DataSet;
+
+/**
+ * Nearest-centroid kernel used by the assignment pass of the engines.
+ * An engine creates one kernel per run, loads the centroids before every pass and then calls
+ * {@link #nearestCentroids} from any number of worker threads; implementations only read
+ * shared state during a pass, so concurrent calls are safe.
+ */
+public interface AssignmentKernel {
+
+    /**
+     * Load this iteration's centroids (k x d row-major). Never called concurrently with
+     * {@link #nearestCentroids}.
+     */
+    void setCentroids(double[] centroids);
+
+    /**
+     * Rows [from, to) of the dataset the kernel was built for were overwritten, e.g. a reused
+     * mini-batch buffer; kernels that cache per-row data refresh it. Never called concurrently with
+     * {@link #nearestCentroids}.
+     */
+    default void rowsChanged(DataSet data, int from, int to) {
+    }
+
+    int getNumCentroids();
+
+    int getDimension();
+
+    /**
+     * Nearest centroid of {@code count} consecutive rows
+     *
+     * @param rows         row-major coordinates, first row at rowOffset
+     * @param firstRow     dataset index of the first row (for kernels that cache per-row data)
+     * @param labels       receives the nearest centroid index of row r at labelOffset + r
+     * @param minDistances receives the squared distance to that centroid at index r
+     */
+    void nearestCentroids(double[] rows, int rowOffset, int firstRow, int count,
+                          int[] labels, int labelOffset, double[] minDistances);
+}
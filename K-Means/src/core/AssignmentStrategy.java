@@ -0,0 +1,44 @@
+package core;
+
+import model.DataSet;
+
+/**
+ * How the engines find each point's nearest centroid.
+ * Selected through {@link KMeansConfig#setAssignmentStrategy(AssignmentStrategy)}.
+ */
+public enum AssignmentStrategy {
+
+    /** Dimension-specialized scalar loops (default) */
+    SCALAR,
+
+    /** SIMD lanes via jdk.incubator.vector; scalar fallback when the module is not enabled */
+    VECTOR,
+
+    /** Cached norms and register-blocked dot products; pays off for larger k and d */
+    BLOCKED;
+
+    /**
+     * Kernel for a run with k centroids over the given dataset
+     */
+    public AssignmentKernel createKernel(DataSet data, int k) {
+        int dimension = data.getDimension();
+        switch (this) {
+            case VECTOR:
+                if (isVectorApiAvailable()) {
+                    return new VectorAssignmentKernel(k, dimension);
+                }
+                return new ScalarAssignmentKernel(k, dimension);
+            case BLOCKED:
+                return new BlockedAssignmentKernel(data, k);
+            default:
+                return new ScalarAssignmentKernel(k, dimension);
+        }
+    }
+
+    /**
+     * True when the JVM was started with --add-modules jdk.incubator.vector
+     */
+    public static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
@@ -0,0 +1,171 @@
+package core;
+
+import model.DataSet;
+import model.RowTiles;
+import util.DistanceUtils;
+
+/**
+ * GEMM-style kernel for larger k and d: ||x - c||^2 = ||x||^2 - 2 x.c + ||c||^2.
+ * Point norms are computed once when the kernel is built for a dataset (and again for rows reported
+ * through {@link #rowsChanged}) and centroid norms once per
+ * {@link #setCentroids}, so the inner loop is a plain dot product. Rows are processed in the
+ * engines' tiles against blocks of centroids small enough to stay in L1, and within a block a
+ * 4 x 4 register micro-kernel computes sixteen dot products per pass over the coordinates,
+ * which loads each coordinate once for four multiply-adds instead of once per pair.
+ *
+ * The expansion can lose precision when points sit far from the origin, so the returned distance
+ * of the winning centroid is recomputed exactly (one extra distance per row, not per pair).
+ */
+public class BlockedAssignmentKernel implements AssignmentKernel {
+
+    private static final int CENTROID_BLOCK = 64;
+
+    private final int k;
+    private final int dimension;
+    private final double[] pointNorms;   // ||x||^2 per dataset row
+    private final double[] centroidNorms;
+    private double[] centroids;
+
+    public BlockedAssignmentKernel(DataSet data, int k) {
+        this.k = k;
+        this.dimension = data.getDimension();
+        this.pointNorms = new double[data.size()];
+        this.centroidNorms = new double[k];
+        rowsChanged(data, 0, data.size());
+    }
+
+    @Override
+    public void rowsChanged(DataSet data, int from, int to) {
+        RowTiles tiles = data.tiles(from, to);
+        while (tiles.next()) {
+            double[] rows = tiles.rows();
+            for (int i = tiles.first(), offset = tiles.offset(); i < tiles.last(); i++, offset += dimension) {
+                pointNorms[i] = dot(rows, offset, rows, offset, dimension);
+            }
+        }
+    }
+
+    @Override
+    public void setCentroids(double[] centroids) {
+        this.centroids = centroids;
+        for (int c = 0; c < k; c++) {
+            centroidNorms[c] = dot(centroids, c * dimension, centroids, c * dimension, dimension);
+        }
+    }
+
+    @Override
+    public int getNumCentroids() {
+        return k;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public void nearestCentroids(double[] rows, int rowOffset, int firstRow, int count,
+                                 int[] labels, int labelOffset, double[] minDistances) {
+        // minDistances holds the running best expanded distance until the exact pass below
+        for (int r = 0; r < count; r++) {
+            minDistances[r] = Double.MAX_VALUE;
+            labels[labelOffset + r] = 0;
+        }
+
+        for (int c0 = 0; c0 < k; c0 += CENTROID_BLOCK) {
+            int c1 = Math.min(k, c0 + CENTROID_BLOCK);
+            int r = 0;
+            for (; r + 4 <= count; r += 4) {
+                assignFourRows(rows, rowOffset + r * dimension, firstRow + r, r, c0, c1,
+                        labels, labelOffset, minDistances);
+            }
+            for (; r < count; r++) {
+                assignOneRow(rows, rowOffset + r * dimension, firstRow + r, r, c0, c1,
+                        labels, labelOffset, minDistances);
+            }
+        }
+
+        for (int r = 0, offset = rowOffset; r < count; r++, offset += dimension) {
+            minDistances[r] = DistanceUtils.squaredDistance(rows, offset, centroids,
+                    labels[labelOffset + r] * dimension, dimension);
+        }
+    }
+
+    private void assignFourRows(double[] rows, int o0, int row, int r, int c0, int c1,
+                                int[] labels, int labelOffset, double[] best) {
+        int d = dimension;
+        int o1 = o0 + d;
+        int o2 = o1 + d;
+        int o3 = o2 + d;
+        int c = c0;
+        for (; c + 4 <= c1; c += 4) {
+            int b0 = c * d;
+            int b1 = b0 + d;
+            int b2 = b1 + d;
+            int b3 = b2 + d;
+            double s00 = 0, s01 = 0, s02 = 0, s03 = 0;
+            double s10 = 0, s11 = 0, s12 = 0, s13 = 0;
+            double s20 = 0, s21 = 0, s22 = 0, s23 = 0;
+            double s30 = 0, s31 = 0, s32 = 0, s33 = 0;
+            for (int j = 0; j < d; j++) {
+                double x0 = rows[o0 + j], x1 = rows[o1 + j], x2 = rows[o2 + j], x3 = rows[o3 + j];
+                double y0 = centroids[b0 + j], y1 = centroids[b1 + j], y2 = centroids[b2 + j], y3 = centroids[b3 + j];
+                s00 += x0 * y0; s01 += x0 * y1; s02 += x0 * y2; s03 += x0 * y3;
+                s10 += x1 * y0; s11 += x1 * y1; s12 += x1 * y2; s13 += x1 * y3;
+                s20 += x2 * y0; s21 += x2 * y1; s22 += x2 * y2; s23 += x2 * y3;
+                s30 += x3 * y0; s31 += x3 * y1; s32 += x3 * y2; s33 += x3 * y3;
+            }
+            update(row, r, c, s00, s01, s02, s03, labels, labelOffset, best);
+            update(row + 1, r + 1, c, s10, s11, s12, s13, labels, labelOffset, best);
+            update(row + 2, r + 2, c, s20, s21, s22, s23, labels, labelOffset, best);
+            update(row + 3, r + 3, c, s30, s31, s32, s33, labels, labelOffset, best);
+        }
+        for (; c < c1; c++) {
+            int b = c * d;
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            for (int j = 0; j < d; j++) {
+                double y = centroids[b + j];
+                s0 += rows[o0 + j] * y;
+                s1 += rows[o1 + j] * y;
+                s2 += rows[o2 + j] * y;
+                s3 += rows[o3 + j] * y;
+            }
+            offer(row, r, c, s0, labels, labelOffset, best);
+            offer(row + 1, r + 1, c, s1, labels, labelOffset, best);
+            offer(row + 2, r + 2, c, s2, labels, labelOffset, best);
+            offer(row + 3, r + 3, c, s3, labels, labelOffset, best);
+        }
+    }
+
+    private void assignOneRow(double[] rows, int offset, int row, int r, int c0, int c1,
+                              int[] labels, int labelOffset, double[] best) {
+        for (int c = c0; c < c1; c++) {
+            offer(row, r, c, dot(rows, offset, centroids, c * dimension, dimension), labels, labelOffset, best);
+        }
+    }
+
+    // Offer four consecutive centroids (c .. c+3) with their dot products against one row
+    private void update(int row, int r, int c, double s0, double s1, double s2, double s3,
+                        int[] labels, int labelOffset, double[] best) {
+        offer(row, r, c, s0, labels, labelOffset, best);
+        offer(row, r, c + 1, s1, labels, labelOffset, best);
+        offer(row, r, c + 2, s2, labels, labelOffset, best);
+        offer(row, r, c + 3, s3, labels, labelOffset, best);
+    }
+
+    private void offer(int row, int r, int c, double dot, int[] labels, int labelOffset, double[] best) {
+        double dist = pointNorms[row] - 2 * dot + centroidNorms[c];
+        if (dist < best[r]) {
+            best[r] = dist;
+            labels[labelOffset + r] = c;
+        }
+    }
+
+    private static double dot(double[] a, int aOffset, double[] b, int bOffset, int dimension) {
+        double sum = 0;
+        for (int j = 0; j < dimension; j++) {
+            sum += a[aOffset + j] * b[bOffset + j];
+        }
+        return sum;
+    }
+}
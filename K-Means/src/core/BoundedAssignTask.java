@@ -0,0 +1,54 @@
+package core;
+
+import model.DataSet;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * RecursiveTask for one bounded assignment pass (Elkan, Hamerly or Yinyang) using the
+ * local-reduce-merge pattern of {@link KMeansAssignTask}. Each leaf tests and updates the bounds of
+ * its own disjoint row range, so the shared bound arrays need no synchronization.
+ */
+class BoundedAssignTask extends RecursiveTask<ClusterAccumulator> {
+    private final DataSet data;
+    private final int start;
+    private final int end;
+    private final AssignmentBounds bounds;
+    private final int threshold;        // leaf size: ranges this small are not split
+    private final boolean delta;        // record only the rows whose label changed
+
+    /**
+     * @param threshold leaf size, e.g. from {@link TaskGranularity}
+     */
+    BoundedAssignTask(DataSet data, int start, int end, AssignmentBounds bounds, int threshold, boolean delta) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        this.data = data;
+        this.start = start;
+        this.end = end;
+        this.bounds = bounds;
+        this.threshold = threshold;
+        this.delta = delta;
+    }
+
+    @Override
+    protected ClusterAccumulator compute() {
+        if (end - start <= threshold) {
+            // LOCAL: bound checks, distances only where needed, sums and counts per cluster
+            return bounds.assign(data, start, end, delta);
+        } else {
+            // REDUCE: Split and recursively compute
+            int mid = (start + end) / 2;
+            BoundedAssignTask left = new BoundedAssignTask(data, start, mid, bounds, threshold, delta);
+            BoundedAssignTask right = new BoundedAssignTask(data, mid, end, bounds, threshold, delta);
+
+            left.fork();
+            ClusterAccumulator rightResult = right.compute();
+            ClusterAccumulator leftResult = left.join();
+
+            // MERGE: Combine partial sums from left and right subtasks
+            return leftResult.merge(rightResult);
+        }
+    }
+}
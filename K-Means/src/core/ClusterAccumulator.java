@@ -0,0 +1,162 @@
+package core;
+
+import evaluation.SSECalculator;
+
+import java.util.Arrays;
+
+/**
+ * Per-cluster partial results of one assignment pass: coordinate sums, point counts and
+ * the SSE contribution of the rows seen so far. Fork/join leaves fill their own accumulator
+ * and parents merge them, so new centroids come from O(k*d) merges instead of a second
+ * pass over the data.
+ *
+ * A pass can also record only what changed since the previous one: {@link #move} takes a row out
+ * of its old cluster and into its new one, so the sums and counts hold deltas that
+ * {@link RunningSums} folds into its totals. The SSE is never a delta: every row of the pass adds
+ * its squared distance to its cluster's Neumaier-compensated sum.
+ */
+public final class ClusterAccumulator {
+
+    private final int dimension;
+    private final double[] sums;    // k x d row-major
+    private final int[] counts;
+    private final double[] sse;             // per cluster
+    private final double[] sseCompensation; // Neumaier running error of each sse entry
+    private long distanceComputations; // point-centroid distances evaluated (bounded engines)
+    private long reassignments;        // rows whose cluster changed in this pass
+
+    public ClusterAccumulator(int k, int dimension) {
+        this.dimension = dimension;
+        this.sums = new double[k * dimension];
+        this.counts = new int[k];
+        this.sse = new double[k];
+        this.sseCompensation = new double[k];
+    }
+
+    /**
+     * Add one row to a cluster
+     * @param coords          array holding the row
+     * @param offset          index of the row's first coordinate
+     * @param squaredDistance squared distance from the row to the cluster's centroid
+     */
+    public void add(int cluster, double[] coords, int offset, double squaredDistance) {
+        int base = cluster * dimension;
+        for (int j = 0; j < dimension; j++) {
+            sums[base + j] += coords[offset + j];
+        }
+        counts[cluster]++;
+        SSECalculator.addCompensated(sse, sseCompensation, cluster, squaredDistance);
+    }
+
+    /**
+     * Move one row from one cluster to another: subtracted from the first, added to the second
+     */
+    public void move(int from, int to, double[] coords, int offset) {
+        int fromBase = from * dimension;
+        int toBase = to * dimension;
+        for (int j = 0; j < dimension; j++) {
+            sums[fromBase + j] -= coords[offset + j];
+            sums[toBase + j] += coords[offset + j];
+        }
+        counts[from]--;
+        counts[to]++;
+    }
+
+    /**
+     * Add a row's squared distance to its cluster's SSE without touching the sums and counts
+     */
+    public void addSSE(int cluster, double squaredDistance) {
+        SSECalculator.addCompensated(sse, sseCompensation, cluster, squaredDistance);
+    }
+
+    /**
+     * Zero all sums, counts and totals so the accumulator can be reused for another pass
+     */
+    public void reset() {
+        Arrays.fill(sums, 0.0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(sse, 0.0);
+        Arrays.fill(sseCompensation, 0.0);
+        distanceComputations = 0;
+        reassignments = 0;
+    }
+
+    /**
+     * Add a group of rows to a cluster at once from their coordinate sum
+     * @param sum             coordinate sums of the rows
+     * @param count           number of rows
+     * @param squaredDistance sum of the rows' squared distances to the cluster's centroid
+     */
+    public void addAll(int cluster, double[] sum, int count, double squaredDistance) {
+        int base = cluster * dimension;
+        for (int j = 0; j < dimension; j++) {
+            sums[base + j] += sum[j];
+        }
+        counts[cluster] += count;
+        SSECalculator.addCompensated(sse, sseCompensation, cluster, squaredDistance);
+    }
+
+    /**
+     * Fold another accumulator into this one and return this
+     */
+    public ClusterAccumulator merge(ClusterAccumulator other) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += other.sums[i];
+        }
+        for (int c = 0; c < counts.length; c++) {
+            counts[c] += other.counts[c];
+            SSECalculator.addCompensated(sse, sseCompensation, c, other.sse[c]);
+            sseCompensation[c] += other.sseCompensation[c];
+        }
+        distanceComputations += other.distanceComputations;
+        reassignments += other.reassignments;
+        return this;
+    }
+
+    public void addDistanceComputations(long count) {
+        distanceComputations += count;
+    }
+
+    public void addReassignments(long count) {
+        reassignments += count;
+    }
+
+    public double[] getSums() {
+        return sums;
+    }
+
+    public int[] getCounts() {
+        return counts;
+    }
+
+    public double getSSE() {
+        return SSECalculator.total(getClusterSSE());
+    }
+
+    /**
+     * SSE of each cluster's rows against the centroids of the pass
+     */
+    public double[] getClusterSSE() {
+        double[] result = new double[sse.length];
+        for (int c = 0; c < sse.length; c++) {
+            result[c] = sse[c] + sseCompensation[c];
+        }
+        return result;
+    }
+
+    public long getDistanceComputations() {
+        return distanceComputations;
+    }
+
+    public long getReassignments() {
+        return reassignments;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int getNumClusters() {
+        return counts.length;
+    }
+}
@@ -0,0 +1,172 @@
+package core;
+
+import model.DataSet;
+import model.RowTiles;
+import util.DistanceUtils;
+
+/**
+ * Triangle-inequality bounds for Elkan's k-means (Elkan, ICML 2003), shared by the sequential and
+ * fork/join engines. Per row it keeps an upper bound on the distance to its own centroid and a
+ * lower bound on the distance to every centroid (n x k), plus the pairwise centroid distances.
+ * A row is skipped outright when its upper bound is below half the distance from its centroid to
+ * the nearest other one, and a candidate centroid is skipped when the upper bound is below that
+ * candidate's lower bound or half the centroid-centroid distance.
+ *
+ * Bounds are plain (not squared) Euclidean distances. {@link #setCentroids} is called by the
+ * engine thread between passes; {@link #assign} may then run concurrently on disjoint row ranges.
+ */
+final class ElkanBounds implements AssignmentBounds {
+
+    private final int k;
+    private final int dimension;
+    private final int[] labels;          // shared with the engine
+    private final double[] upper;        // n
+    private final double[] lower;        // n x k
+    private final double[] halfDistances; // k x k, half the distance between centroids
+    private final double[] separation;   // k, half the distance to the nearest other centroid
+    private final double[] movement;     // k, how far each centroid moved since the last pass
+    private double[] centroids;
+    private double[] previous;           // centroids of the last pass
+    private boolean firstPass = true;
+
+    ElkanBounds(int n, int k, int dimension, int[] labels) {
+        this.k = k;
+        this.dimension = dimension;
+        this.labels = labels;
+        this.upper = new double[n];
+        this.lower = new double[Math.multiplyExact(n, k)];
+        this.halfDistances = new double[k * k];
+        this.separation = new double[k];
+        this.movement = new double[k];
+    }
+
+    /**
+     * Load this iteration's centroids: records how far each centroid moved since the previous
+     * pass (the bounds themselves are adjusted lazily, row by row, inside {@link #assign}) and
+     * recomputes the centroid-centroid distances in O(k^2 d)
+     */
+    @Override
+    public void setCentroids(double[] centroids) {
+        firstPass = previous == null;
+        if (!firstPass) {
+            for (int c = 0; c < k; c++) {
+                movement[c] = DistanceUtils.distance(previous, c * dimension, centroids, c * dimension, dimension);
+            }
+        } else {
+            previous = new double[centroids.length];
+        }
+        System.arraycopy(centroids, 0, previous, 0, centroids.length);
+        this.centroids = centroids;
+
+        for (int a = 0; a < k; a++) {
+            separation[a] = Double.MAX_VALUE;
+        }
+        for (int a = 0; a < k; a++) {
+            for (int b = a + 1; b < k; b++) {
+                double half = 0.5 * DistanceUtils.distance(centroids, a * dimension, centroids, b * dimension, dimension);
+                halfDistances[a * k + b] = half;
+                halfDistances[b * k + a] = half;
+                separation[a] = Math.min(separation[a], half);
+                separation[b] = Math.min(separation[b], half);
+            }
+        }
+    }
+
+    /**
+     * Assign rows [from, to) and accumulate their sums and counts. The accumulator's SSE is the sum
+     * of squared upper bounds, which is only an upper bound on the true SSE; the engines compute the
+     * exact value separately. With delta set, only the rows whose label changed are recorded, as
+     * moves between clusters for {@link RunningSums}.
+     */
+    @Override
+    public ClusterAccumulator assign(DataSet data, int from, int to, boolean delta) {
+        ClusterAccumulator local = new ClusterAccumulator(k, dimension);
+        long computed = 0;
+        long reassigned = 0;
+
+        RowTiles tiles = data.tiles(from, to);
+        while (tiles.next()) {
+            double[] rows = tiles.rows();
+            for (int i = tiles.first(), offset = tiles.offset(); i < tiles.last(); i++, offset += dimension) {
+                int before = labels[i];
+                computed += firstPass ? initialize(i, rows, offset) : update(i, rows, offset);
+                if (labels[i] != before) {
+                    reassigned++;
+                }
+                if (!delta) {
+                    local.add(labels[i], rows, offset, upper[i] * upper[i]);
+                } else {
+                    if (labels[i] != before) {
+                        local.move(before, labels[i], rows, offset);
+                    }
+                    local.addSSE(labels[i], upper[i] * upper[i]);
+                }
+            }
+        }
+
+        local.addDistanceComputations(computed);
+        local.addReassignments(reassigned);
+        return local;
+    }
+
+    // First pass: every distance is computed and becomes an exact lower bound
+    private int initialize(int i, double[] rows, int offset) {
+        int base = i * k;
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for (int c = 0; c < k; c++) {
+            double d = distance(rows, offset, c);
+            lower[base + c] = d;
+            if (d < best) {
+                best = d;
+                nearest = c;
+            }
+        }
+        labels[i] = nearest;
+        upper[i] = best;
+        return k;
+    }
+
+    // Later passes: shift the bounds by the centroid movement, then only test candidates they cannot rule out
+    private int update(int i, double[] rows, int offset) {
+        int base = i * k;
+        int a = labels[i];
+        double u = upper[i] + movement[a];
+        for (int c = 0; c < k; c++) {
+            lower[base + c] = Math.max(0.0, lower[base + c] - movement[c]);
+        }
+
+        int computed = 0;
+        if (u > separation[a]) {
+            boolean tight = false;
+            for (int c = 0; c < k; c++) {
+                if (c == a || u <= lower[base + c] || u <= halfDistances[a * k + c]) {
+                    continue;
+                }
+                if (!tight) {
+                    u = distance(rows, offset, a);
+                    lower[base + a] = u;
+                    computed++;
+                    tight = true;
+                    if (u <= lower[base + c] || u <= halfDistances[a * k + c]) {
+                        continue;
+                    }
+                }
+                double d = distance(rows, offset, c);
+                lower[base + c] = d;
+                computed++;
+                if (d < u) {
+                    a = c;
+                    u = d;
+                }
+            }
+        }
+        labels[i] = a;
+        upper[i] = u;
+        return computed;
+    }
+
+    private double distance(double[] rows, int offset, int centroid) {
+        return Math.sqrt(DistanceUtils.squaredDistance(rows, offset, centroids, centroid * dimension, dimension));
+    }
+}
@@ -0,0 +1,166 @@
+package core;
+
+import model.DataSet;
+import model.RowTiles;
+import util.DistanceUtils;
+
+/**
+ * Bounds for Hamerly's k-means (Hamerly, SDM 2010), shared by the sequential and fork/join engines.
+ * Per row it keeps one upper bound on the distance to its own centroid and one lower bound on the
+ * distance to the second-closest centroid: O(n) memory instead of Elkan's O(n*k). A row keeps its
+ * label without any distance when its upper bound is below both its lower bound and half the
+ * distance from its centroid to the nearest other one; otherwise the upper bound is tightened and,
+ * if that is not enough, all k distances are evaluated. With few dimensions a distance costs about
+ * as much as a bound check, so skipping whole rows beats Elkan's per-centroid tests.
+ *
+ * Bounds are plain (not squared) Euclidean distances. {@link #setCentroids} is called by the
+ * engine thread between passes; {@link #assign} may then run concurrently on disjoint row ranges.
+ */
+final class HamerlyBounds implements AssignmentBounds {
+
+    private final int k;
+    private final int dimension;
+    private final int[] labels;          // shared with the engine
+    private final double[] upper;        // n, distance to the own centroid
+    private final double[] lower;        // n, distance to the second-closest centroid
+    private final double[] separation;   // k, half the distance to the nearest other centroid
+    private final double[] movement;     // k, how far each centroid moved since the last pass
+    private int farthest;                // centroid that moved the most
+    private double maxMovement;
+    private double secondMovement;       // largest movement among the other centroids
+    private double[] centroids;
+    private double[] previous;           // centroids of the last pass
+    private boolean firstPass = true;
+
+    HamerlyBounds(int n, int k, int dimension, int[] labels) {
+        this.k = k;
+        this.dimension = dimension;
+        this.labels = labels;
+        this.upper = new double[n];
+        this.lower = new double[n];
+        this.separation = new double[k];
+        this.movement = new double[k];
+    }
+
+    /**
+     * Load this iteration's centroids: records how far each centroid moved since the previous
+     * pass (the bounds themselves are adjusted lazily, row by row, inside {@link #assign}) and
+     * recomputes the half distance from each centroid to its nearest neighbour in O(k^2 d)
+     */
+    @Override
+    public void setCentroids(double[] centroids) {
+        firstPass = previous == null;
+        if (firstPass) {
+            previous = new double[centroids.length];
+        } else {
+            farthest = 0;
+            maxMovement = 0;
+            secondMovement = 0;
+            for (int c = 0; c < k; c++) {
+                movement[c] = DistanceUtils.distance(previous, c * dimension, centroids, c * dimension, dimension);
+                if (movement[c] > maxMovement) {
+                    secondMovement = maxMovement;
+                    maxMovement = movement[c];
+                    farthest = c;
+                } else if (movement[c] > secondMovement) {
+                    secondMovement = movement[c];
+                }
+            }
+        }
+        System.arraycopy(centroids, 0, previous, 0, centroids.length);
+        this.centroids = centroids;
+
+        for (int a = 0; a < k; a++) {
+            separation[a] = Double.MAX_VALUE;
+        }
+        for (int a = 0; a < k; a++) {
+            for (int b = a + 1; b < k; b++) {
+                double half = 0.5 * DistanceUtils.distance(centroids, a * dimension, centroids, b * dimension, dimension);
+                separation[a] = Math.min(separation[a], half);
+                separation[b] = Math.min(separation[b], half);
+            }
+        }
+    }
+
+    /**
+     * Assign rows [from, to) and accumulate their sums and counts. The accumulator's SSE is the sum
+     * of squared upper bounds, which is only an upper bound on the true SSE; the engines compute the
+     * exact value separately. With delta set, only the rows whose label changed are recorded, as
+     * moves between clusters for {@link RunningSums}.
+     */
+    @Override
+    public ClusterAccumulator assign(DataSet data, int from, int to, boolean delta) {
+        ClusterAccumulator local = new ClusterAccumulator(k, dimension);
+        long computed = 0;
+        long reassigned = 0;
+
+        RowTiles tiles = data.tiles(from, to);
+        while (tiles.next()) {
+            double[] rows = tiles.rows();
+            for (int i = tiles.first(), offset = tiles.offset(); i < tiles.last(); i++, offset += dimension) {
+                int before = labels[i];
+                computed += firstPass ? scan(i, rows, offset) : update(i, rows, offset);
+                if (labels[i] != before) {
+                    reassigned++;
+                }
+                if (!delta) {
+                    local.add(labels[i], rows, offset, upper[i] * upper[i]);
+                } else {
+                    if (labels[i] != before) {
+                        local.move(before, labels[i], rows, offset);
+                    }
+                    local.addSSE(labels[i], upper[i] * upper[i]);
+                }
+            }
+        }
+
+        local.addDistanceComputations(computed);
+        local.addReassignments(reassigned);
+        return local;
+    }
+
+    // Later passes: shift the bounds by the centroid movement, then fall back to a full scan only if they overlap
+    private int update(int i, double[] rows, int offset) {
+        int a = labels[i];
+        double u = upper[i] + movement[a];
+        double l = lower[i] - (a == farthest ? secondMovement : maxMovement);
+        upper[i] = u;
+        lower[i] = l;
+
+        double bound = Math.max(l, separation[a]);
+        if (u <= bound) {
+            return 0;
+        }
+        u = distance(rows, offset, a);
+        upper[i] = u;
+        if (u <= bound) {
+            return 1;
+        }
+        return 1 + scan(i, rows, offset);
+    }
+
+    // Exact nearest and second-nearest centroid; ties keep the lowest index like the Lloyd engines
+    private int scan(int i, double[] rows, int offset) {
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        double second = Double.MAX_VALUE;
+        for (int c = 0; c < k; c++) {
+            double d = distance(rows, offset, c);
+            if (d < best) {
+                second = best;
+                best = d;
+                nearest = c;
+            } else if (d < second) {
+                second = d;
+            }
+        }
+        labels[i] = nearest;
+        upper[i] = best;
+        lower[i] = second;
+        return k;
+    }
+
+    private double distance(double[] rows, int offset, int centroid) {
+        return Math.sqrt(DistanceUtils.squaredDistance(rows, offset, centroids, centroid * dimension, dimension));
+    }
+}
@@ -1,104 +1,138 @@
 package core;
 
 import model.Cluster;
-import model.Point;
-import util.DistanceUtils;
+import model.DataSet;
+import model.PointMatrix;
+import model.RowTiles;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.RecursiveTask;
 
 /**
  * RecursiveTask to assign points to nearest cluster in parallel using local-reduce-merge pattern
- * This eliminates race conditions by accumulating locally and merging at the end
+ * Each leaf writes the labels of its own disjoint row range and, in the same pass, accumulates
+ * per-cluster coordinate sums, counts and SSE locally; the partial results are merged on the way
+ * back up, so no synchronization is needed and centroids need no second pass over the data
  */
-public class KMeansAssignTask extends RecursiveTask<Map<Integer, List<Point>>> {
-    private static final int THRESHOLD = 1000; // chunk size
-    private final List<Point> points;
+public class KMeansAssignTask extends RecursiveTask<ClusterAccumulator> {
+    static final int THRESHOLD = 1000; // default chunk size
+    private final DataSet data;
     private final int start;
     private final int end;
-    private final List<Cluster> clusters;
+    private final AssignmentKernel kernel; // nearest-centroid kernel, centroids already loaded
+    private final int k;
+    private final int[] labels;         // shared; each task only writes [start, end)
+    private final int threshold;        // leaf size: ranges this small are not split
+    private final boolean delta;        // record only the rows whose label changed
 
-    public KMeansAssignTask(List<Point> points, int start, int end, List<Cluster> clusters) {
-        this.points = points;
+    public KMeansAssignTask(DataSet data, int start, int end, List<Cluster> clusters, int[] labels) {
+        this(data, start, end, PointMatrix.fromCentroids(clusters).getData(), labels);
+    }
+
+    /**
+     * @param centroids k x d row-major centroid coordinates, matched with the scalar kernel
+     * @param labels    receives the nearest centroid index of every row in [start, end)
+     */
+    public KMeansAssignTask(DataSet data, int start, int end, double[] centroids, int[] labels) {
+        this(data, start, end, scalarKernel(data, centroids), labels);
+    }
+
+    /**
+     * @param kernel kernel whose centroids were loaded for this pass
+     * @param labels receives the nearest centroid index of every row in [start, end)
+     */
+    public KMeansAssignTask(DataSet data, int start, int end, AssignmentKernel kernel, int[] labels) {
+        this(data, start, end, kernel, labels, THRESHOLD);
+    }
+
+    /**
+     * @param threshold leaf size, e.g. from {@link TaskGranularity}
+     */
+    public KMeansAssignTask(DataSet data, int start, int end, AssignmentKernel kernel, int[] labels, int threshold) {
+        this(data, start, end, kernel, labels, threshold, false);
+    }
+
+    /**
+     * @param delta when true, labels must hold the previous pass's assignment and the result holds
+     *              only the changes: each reassigned row moved out of its old cluster and into its
+     *              new one (see {@link RunningSums}); SSE and the reassignment count are always complete
+     */
+    public KMeansAssignTask(DataSet data, int start, int end, AssignmentKernel kernel, int[] labels, int threshold,
+                            boolean delta) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        this.data = data;
         this.start = start;
         this.end = end;
-        this.clusters = clusters;
+        this.kernel = kernel;
+        this.k = kernel.getNumCentroids();
+        this.labels = labels;
+        this.threshold = threshold;
+        this.delta = delta;
+    }
+
+    private static AssignmentKernel scalarKernel(DataSet data, double[] centroids) {
+        int dim = data.getDimension();
+        if (centroids.length % dim != 0) {
+            throw new IllegalArgumentException("Centroid array length " + centroids.length +
+                    " is not a multiple of the data dimension " + dim);
+        }
+        AssignmentKernel kernel = new ScalarAssignmentKernel(centroids.length / dim, dim);
+        kernel.setCentroids(centroids);
+        return kernel;
     }
 
     @Override
-    protected Map<Integer, List<Point>> compute() {
-        if (end - start <= THRESHOLD) {
-            // LOCAL: Accumulate assignments locally in a map (cluster index -> list of points)
-            Map<Integer, List<Point>> localAssignments = new HashMap<>();
-            
-            for (int i = start; i < end; i++) {
-                Point p = points.get(i);
-                int nearestClusterIndex = -1;
-                double minDist = Double.MAX_VALUE;
-
-                // Find nearest cluster
-                for (int j = 0; j < clusters.size(); j++) {
-                    Cluster c = clusters.get(j);
-                    double dist = DistanceUtils.distance(p, c.getCentroid());
-                    if (dist < minDist) {
-                        minDist = dist;
-                        nearestClusterIndex = j;
+    protected ClusterAccumulator compute() {
+        if (end - start <= threshold) {
+            // LOCAL: Accumulate sums, counts and SSE per cluster
+            int dim = data.getDimension();
+            ClusterAccumulator local = new ClusterAccumulator(k, dim);
+
+            double[] minDistances = new double[Math.min(end - start, RowTiles.TILE_ROWS)];
+            int[] previous = new int[minDistances.length];
+            long reassigned = 0;
+
+            RowTiles tiles = data.tiles(start, end);
+            while (tiles.next()) {
+                double[] coords = tiles.rows();
+                System.arraycopy(labels, tiles.first(), previous, 0, tiles.count());
+                // Find nearest cluster (squared distances); rows are disjoint between tasks,
+                // so writing the labels directly is safe
+                kernel.nearestCentroids(coords, tiles.offset(), tiles.first(), tiles.count(),
+                        labels, tiles.first(), minDistances);
+
+                for (int i = tiles.first(), r = 0, offset = tiles.offset(); i < tiles.last(); i++, r++, offset += dim) {
+                    int label = labels[i];
+                    if (label != previous[r]) {
+                        reassigned++;
+                    }
+                    if (!delta) {
+                        local.add(label, coords, offset, minDistances[r]);
+                    } else {
+                        if (label != previous[r]) {
+                            local.move(previous[r], label, coords, offset);
+                        }
+                        local.addSSE(label, minDistances[r]);
                     }
                 }
-
-                // Add to local accumulation (no synchronization needed)
-                localAssignments.computeIfAbsent(nearestClusterIndex, k -> new ArrayList<>()).add(p);
             }
-            
-            return localAssignments;
+
+            local.addReassignments(reassigned);
+            return local;
         } else {
             // REDUCE: Split and recursively compute
             int mid = (start + end) / 2;
-            KMeansAssignTask left = new KMeansAssignTask(points, start, mid, clusters);
-            KMeansAssignTask right = new KMeansAssignTask(points, mid, end, clusters);
-            
+            KMeansAssignTask left = new KMeansAssignTask(data, start, mid, kernel, labels, threshold, delta);
+            KMeansAssignTask right = new KMeansAssignTask(data, mid, end, kernel, labels, threshold, delta);
+
             left.fork();
-            Map<Integer, List<Point>> rightResult = right.compute();
-            Map<Integer, List<Point>> leftResult = left.join();
-            
-            // MERGE: Combine results from left and right subtasks
-            return mergeAssignments(leftResult, rightResult);
-        }
-    }
-    
-    /**
-     * Merge two assignment maps by combining lists for the same cluster index
-     */
-    private Map<Integer, List<Point>> mergeAssignments(Map<Integer, List<Point>> left, Map<Integer, List<Point>> right) {
-        Map<Integer, List<Point>> merged = new HashMap<>(left);
-        
-        for (Map.Entry<Integer, List<Point>> entry : right.entrySet()) {
-            int clusterIndex = entry.getKey();
-            List<Point> points = entry.getValue();
-            merged.computeIfAbsent(clusterIndex, k -> new ArrayList<>()).addAll(points);
-        }
-        
-        return merged;
-    }
-    
-    /**
-     * Merge the final result into the actual clusters
-     * This should be called after the task completes
-     */
-    public static void mergeIntoClusters(Map<Integer, List<Point>> assignments, List<Cluster> clusters) {
-        for (Map.Entry<Integer, List<Point>> entry : assignments.entrySet()) {
-            int clusterIndex = entry.getKey();
-            List<Point> points = entry.getValue();
-            
-            if (clusterIndex >= 0 && clusterIndex < clusters.size()) {
-                Cluster cluster = clusters.get(clusterIndex);
-                for (Point p : points) {
-                    cluster.addPoint(p);
-                }
-            }
+            ClusterAccumulator rightResult = right.compute();
+            ClusterAccumulator leftResult = left.join();
+
+            // MERGE: Combine partial sums from left and right subtasks
+            return leftResult.merge(rightResult);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package core;
+
+import evaluation.SSECalculator;
+import model.Assignment;
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import util.SamplingUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Lloyd's algorithm with per-row distance bounds ({@link AssignmentBounds}), shared by the Elkan,
+ * Hamerly and Yinyang engines. Produces the same assignments as {@link KMeansSequential}, but once
+ * centroids settle only the distances the bounds cannot rule out are evaluated. The bounds live as
+ * long as the run, so {@link #advance} resumes without re-paying a full first pass. A subclass only
+ * supplies its bounds; the parallel engines run each pass as a {@link BoundedAssignTask} on the
+ * config's pool, with leaves sized by the config's {@link TaskGranularity}.
+ */
+abstract class KMeansBounded implements KMeansEngine {
+
+    private final KMeansConfig config;
+    private final List<Point> points;   // original point objects, null when built from a matrix
+    private final DataSet data;
+    private final List<Cluster> clusters;
+    private final ForkJoinPool pool;    // null for the sequential engines
+    private final String name;          // engine name in the summary line
+    private double[] centroids;         // k x d working copy of the centroids during a run
+    private int[] labels;               // cluster index of every row
+    private int[] counts;               // rows per cluster
+    private int iterationsCompleted = 0;
+    private long distanceComputations = 0;
+    private int leafSize;               // rows per leaf task in the last parallel run
+    private final List<Long> skippedPerIteration = new ArrayList<>();
+
+    // State of the current run, kept between calls to advance()
+    private boolean started;
+    private SplittableRandom random;    // empty-cluster reseeding
+    private AssignmentBounds bounds;
+    private RunningSums running;        // per-cluster sums kept across passes
+    private int iteration;
+    private boolean converged;
+
+    /**
+     * @param points   original points, or null to publish rows materialized from data
+     * @param parallel run each pass on the config's pool instead of the calling thread
+     */
+    KMeansBounded(KMeansConfig config, List<Point> points, DataSet data, boolean parallel, String name) {
+        this.config = config;
+        this.points = points;
+        this.data = data;
+        this.clusters = new ArrayList<>();
+        this.pool = parallel ? config.getPool() : null; // common pool unless the config supplies a dedicated one
+        this.name = name;
+    }
+
+    /**
+     * Fresh bounds for a run over n rows and k centroids, keeping the given labels array up to date
+     */
+    abstract AssignmentBounds createBounds(int n, int k, int dimension, int[] labels);
+
+    public void run() {
+        started = false;
+        advance(config.getMaxIterations());
+        if (config.isVerbose()) {
+            long distancesPerIteration = (long) data.size() * clusters.size();
+            System.out.println((pool != null ? "Parallel " : "") + name + " K-Means finished in " + iteration +
+                    " iterations (" + String.format("%.1f", 100.0 * (iteration * distancesPerIteration - distanceComputations)
+                    / Math.max(1, iteration * distancesPerIteration)) + "% of distance computations skipped)");
+        }
+    }
+
+    public boolean advance(int maxIterations) {
+        if (!started) {
+            start();
+        }
+        int dim = data.getDimension();
+        long distancesPerIteration = (long) data.size() * clusters.size();
+        TaskGranularity granularity = config.getGranularity();
+        int stop = (int) Math.min(config.getMaxIterations(), (long) iteration + maxIterations);
+
+        while (!converged && iteration < stop) {
+            // 1. Assign each point to nearest cluster, skipping distances the bounds rule out;
+            //    in parallel, sums and counts are merged up the task tree
+            boolean delta = running.nextPassIsDelta(); // full pass first and every few passes
+            bounds.setCentroids(centroids);
+            ClusterAccumulator partials;
+            if (pool == null) {
+                partials = bounds.assign(data, 0, data.size(), delta);
+            } else {
+                long passStart = System.nanoTime();
+                partials = pool.invoke(new BoundedAssignTask(data, 0, data.size(), bounds, leafSize, delta));
+                if (iteration == 1) { // the first pass also pays for JIT compilation
+                    leafSize = granularity.calibratedLeafSize(System.nanoTime() - passStart, data.size(),
+                            pool.getParallelism(), leafSize);
+                }
+            }
+            distanceComputations += partials.getDistanceComputations();
+            skippedPerIteration.add(distancesPerIteration - partials.getDistanceComputations());
+            running.fold(partials, delta);
+            counts = running.getCounts();
+
+            // 2. Handle empty clusters
+            KMeansSupport.handleEmptyClusters(data, labels, counts, centroids, random);
+
+            // 3. Recompute centroids from the sums and check convergence
+            converged = KMeansSupport.applySums(running.getSums(), counts, centroids, dim, config.getTolerance())
+                    || KMeansSupport.labelsStable(config, iteration, partials.getReassignments(), counts);
+
+            iteration++;
+        }
+
+        KMeansSupport.publish(clusters, centroids, dim, new Assignment(labels, counts, this::pointAt));
+
+        iterationsCompleted = iteration;
+        return converged || iteration >= config.getMaxIterations();
+    }
+
+    // Fresh run state and bounds from the initial clusters, or from random rows when none were set
+    private void start() {
+        random = config.newRandom(); // initial rows and empty-cluster reseeding
+
+        // Only initialize if clusters are empty (allows for custom initialization)
+        if (clusters.isEmpty()) {
+            initializeClusters(random);
+        }
+
+        int dim = data.getDimension();
+        centroids = KMeansSupport.centroidArray(clusters, dim);
+        labels = new int[data.size()];
+        counts = new int[clusters.size()];
+        bounds = createBounds(data.size(), clusters.size(), dim, labels);
+        distanceComputations = 0;
+        skippedPerIteration.clear();
+        if (pool != null) {
+            leafSize = config.getGranularity().initialLeafSize(data.size(), clusters.size(), dim,
+                    pool.getParallelism(), config.getLeafSize());
+        }
+        running = new RunningSums(config); // per-cluster sums kept across passes
+        converged = false;
+        iteration = 0;
+        started = true;
+    }
+
+    public int getIterationsCompleted() {
+        return iterationsCompleted;
+    }
+
+    /**
+     * Point-centroid distances evaluated during the last run (Lloyd evaluates n*k per iteration)
+     */
+    public long getDistanceComputations() {
+        return distanceComputations;
+    }
+
+    /**
+     * Distance computations skipped in each iteration of the last run, compared with the n*k of Lloyd
+     */
+    public long[] getSkippedPerIteration() {
+        long[] skipped = new long[skippedPerIteration.size()];
+        for (int i = 0; i < skipped.length; i++) {
+            skipped[i] = skippedPerIteration.get(i);
+        }
+        return skipped;
+    }
+
+    /**
+     * Leaf size the assignment tasks used in the last parallel run (after calibration, for MEASURED)
+     */
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    private void initializeClusters(SplittableRandom random) {
+        clusters.clear();
+        int k = Math.min(config.getK(), data.size());
+
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(pointAt(row)));
+        }
+    }
+
+    public void setInitialClusters(List<Cluster> initialClusters) {
+        clusters.clear();
+        started = false;
+        // Create deep copies to avoid reference issues
+        for (Cluster original : initialClusters) {
+            Cluster copy = new Cluster(new Point(original.getCentroid().getCoordinates()));
+            clusters.add(copy);
+        }
+    }
+
+    // Original Point object for a row when available, otherwise a copy materialized from the matrix
+    private Point pointAt(int row) {
+        return points != null ? points.get(row) : data.getPoint(row);
+    }
+
+    /**
+     * Exact SSE in one compensated pass (fork/join for the parallel engines); the bounds only give
+     * an upper bound during the run
+     */
+    public double computeSSE() {
+        if (labels == null) {
+            return 0.0;
+        }
+        return SSECalculator.total(computeClusterSSE());
+    }
+
+    public double[] computeClusterSSE() {
+        if (labels == null) {
+            return new double[clusters.size()];
+        }
+        return pool != null
+                ? SSECalculator.computeClusterSSE(data, labels, centroids, pool)
+                : SSECalculator.computeClusterSSE(data, labels, centroids);
+    }
+
+    public List<Cluster> getClusters() {
+        return clusters;
+    }
+}
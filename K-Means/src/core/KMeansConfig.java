@@ -1,10 +1,25 @@
 package core;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
 public class KMeansConfig {
 
     private int k;                // number of clusters
     private int maxIterations;    // maximum iterations before stopping
     private double tolerance;     // minimum centroid movement to stop
+    private AssignmentStrategy assignmentStrategy = AssignmentStrategy.SCALAR; // nearest-centroid kernel
+    private KMeansMethod method = KMeansMethod.LLOYD; // algorithm picked by KMeansEngine.create
+    private int miniBatchSize = 1024;  // rows per mini-batch step
+    private MiniBatchSampling miniBatchSampling = MiniBatchSampling.UNIFORM;
+    private boolean miniBatchFinalPass = true; // exact full-data assignment after the last mini-batch
+    private ForkJoinPool pool;         // pool of the fork/join engines, null for the common pool
+    private TaskGranularity granularity = TaskGranularity.ADAPTIVE; // leaf size policy
+    private int leafSize = 1000;       // rows per leaf task under TaskGranularity.FIXED
+    private long seed = new SplittableRandom().nextLong(); // root of every random stream of a run
+    private boolean incrementalSums = true;  // fold only the rows that changed cluster into the sums
+    private boolean stopOnStableLabels = true; // stop once a pass reassigns no row
+    private boolean verbose = true;    // engines print a summary line at the end of run()
 
     // Constructor
     public KMeansConfig(int k, int maxIterations, double tolerance) {
@@ -30,6 +45,69 @@ public class KMeansConfig {
         return tolerance;
     }
 
+    public AssignmentStrategy getAssignmentStrategy() {
+        return assignmentStrategy;
+    }
+
+    public KMeansMethod getMethod() {
+        return method;
+    }
+
+    public int getMiniBatchSize() {
+        return miniBatchSize;
+    }
+
+    public MiniBatchSampling getMiniBatchSampling() {
+        return miniBatchSampling;
+    }
+
+    public boolean isMiniBatchFinalPass() {
+        return miniBatchFinalPass;
+    }
+
+    /**
+     * Pool the fork/join engines run on: the one set with {@link #setPool}, or the common pool
+     */
+    public ForkJoinPool getPool() {
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    public TaskGranularity getGranularity() {
+        return granularity;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Seed every run with this config derives its random choices from. A random one is drawn when
+     * the config is created, so reading it back is enough to replay a run.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isIncrementalSums() {
+        return incrementalSums;
+    }
+
+    public boolean isStopOnStableLabels() {
+        return stopOnStableLabels;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * Fresh generator at the start of this config's stream. Each run creates its own, so runs never
+     * share a generator; split it for work that runs concurrently.
+     */
+    public SplittableRandom newRandom() {
+        return new SplittableRandom(seed);
+    }
+
     // Setters (optional, only if you want to change config after creation)
     public void setK(int k) {
         if (k <= 0) throw new IllegalArgumentException("k must be positive");
@@ -46,12 +124,132 @@ public class KMeansConfig {
         this.tolerance = tolerance;
     }
 
+    public void setAssignmentStrategy(AssignmentStrategy assignmentStrategy) {
+        if (assignmentStrategy == null) throw new IllegalArgumentException("assignmentStrategy must not be null");
+        this.assignmentStrategy = assignmentStrategy;
+    }
+
+    public void setMethod(KMeansMethod method) {
+        if (method == null) throw new IllegalArgumentException("method must not be null");
+        this.method = method;
+    }
+
+    public void setMiniBatchSize(int miniBatchSize) {
+        if (miniBatchSize <= 0) throw new IllegalArgumentException("miniBatchSize must be positive");
+        this.miniBatchSize = miniBatchSize;
+    }
+
+    public void setMiniBatchSampling(MiniBatchSampling miniBatchSampling) {
+        if (miniBatchSampling == null) throw new IllegalArgumentException("miniBatchSampling must not be null");
+        this.miniBatchSampling = miniBatchSampling;
+    }
+
+    public void setMiniBatchFinalPass(boolean miniBatchFinalPass) {
+        this.miniBatchFinalPass = miniBatchFinalPass;
+    }
+
+    /**
+     * Run the fork/join engines on a dedicated pool instead of the common pool; null restores
+     * the common pool. The caller owns the pool and shuts it down.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Run the fork/join engines on a new dedicated pool of the given size, isolated from the
+     * common pool. Returns the pool so the caller can shut it down when done.
+     */
+    public ForkJoinPool createDedicatedPool(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+        this.pool = new ForkJoinPool(parallelism);
+        return pool;
+    }
+
+    public void setGranularity(TaskGranularity granularity) {
+        if (granularity == null) throw new IllegalArgumentException("granularity must not be null");
+        this.granularity = granularity;
+    }
+
+    public void setLeafSize(int leafSize) {
+        if (leafSize <= 0) throw new IllegalArgumentException("leafSize must be positive");
+        this.leafSize = leafSize;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Keep per-cluster sums across passes and apply only the rows that changed cluster, instead of
+     * re-summing every row each pass; the sums are still rebuilt from scratch every few passes
+     */
+    public void setIncrementalSums(boolean incrementalSums) {
+        this.incrementalSums = incrementalSums;
+    }
+
+    /**
+     * Also stop when a pass reassigns no row, whatever the tolerance: the centroids would not change
+     */
+    public void setStopOnStableLabels(boolean stopOnStableLabels) {
+        this.stopOnStableLabels = stopOnStableLabels;
+    }
+
+    /**
+     * Let engines print their summary line at the end of a run; turn off when timing runs, so the
+     * measurement does not include console I/O
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Copy of this config with a different seed, e.g. one per restart of the same configuration
+     */
+    public KMeansConfig withSeed(long seed) {
+        KMeansConfig copy = copy();
+        copy.seed = seed;
+        return copy;
+    }
+
+    /**
+     * Independent copy of every setting; the pool, if any, is shared
+     */
+    public KMeansConfig copy() {
+        KMeansConfig copy = new KMeansConfig(k, maxIterations, tolerance);
+        copy.assignmentStrategy = assignmentStrategy;
+        copy.method = method;
+        copy.miniBatchSize = miniBatchSize;
+        copy.miniBatchSampling = miniBatchSampling;
+        copy.miniBatchFinalPass = miniBatchFinalPass;
+        copy.pool = pool;
+        copy.granularity = granularity;
+        copy.leafSize = leafSize;
+        copy.seed = seed;
+        copy.incrementalSums = incrementalSums;
+        copy.stopOnStableLabels = stopOnStableLabels;
+        copy.verbose = verbose;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "KMeansConfig{" +
                 "k=" + k +
                 ", maxIterations=" + maxIterations +
                 ", tolerance=" + tolerance +
+                ", assignmentStrategy=" + assignmentStrategy +
+                ", method=" + method +
+                ", miniBatchSize=" + miniBatchSize +
+                ", miniBatchSampling=" + miniBatchSampling +
+                ", miniBatchFinalPass=" + miniBatchFinalPass +
+                ", parallelism=" + getPool().getParallelism() +
+                ", granularity=" + granularity +
+                ", leafSize=" + leafSize +
+                ", seed=" + seed +
+                ", incrementalSums=" + incrementalSums +
+                ", stopOnStableLabels=" + stopOnStableLabels +
+                ", verbose=" + verbose +
                 '}';
     }
 }
@@ -0,0 +1,28 @@
+package core;
+
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+
+import java.util.List;
+
+/**
+ * Lloyd's algorithm with Elkan's triangle-inequality bounds (see {@link ElkanBounds}).
+ * Produces the same assignments as {@link KMeansSequential} but, once centroids settle, evaluates only a
+ * small fraction of the n*k point-centroid distances per iteration, at the cost of n*k lower bounds.
+ */
+public class KMeansElkan extends KMeansBounded {
+
+    public KMeansElkan(KMeansConfig config, List<Point> points) {
+        super(config, points, PointMatrix.fromPoints(points), false, "Elkan");
+    }
+
+    public KMeansElkan(KMeansConfig config, DataSet data) {
+        super(config, null, data, false, "Elkan");
+    }
+
+    @Override
+    AssignmentBounds createBounds(int n, int k, int dimension, int[] labels) {
+        return new ElkanBounds(n, k, dimension, labels);
+    }
+}
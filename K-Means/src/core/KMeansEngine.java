@@ -0,0 +1,94 @@
+package core;
+
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+
+import java.util.List;
+
+/**
+ * Common surface of the k-means engines, so callers can pick one from a {@link KMeansConfig}
+ * instead of hard-coding a class
+ */
+public interface KMeansEngine {
+
+    /**
+     * Engine for the config's {@link KMeansMethod}, sequential or fork/join
+     */
+    static KMeansEngine create(KMeansConfig config, List<Point> points, boolean parallel) {
+        return create(config, points, PointMatrix.fromPoints(points), parallel);
+    }
+
+    static KMeansEngine create(KMeansConfig config, DataSet data, boolean parallel) {
+        return create(config, null, data, parallel);
+    }
+
+    // points may be null; engines built from a list keep publishing the original Point objects
+    private static KMeansEngine create(KMeansConfig config, List<Point> points, DataSet data, boolean parallel) {
+        switch (config.getMethod()) {
+            case ELKAN:
+                if (points != null) {
+                    return parallel ? new KMeansElkanParallel(config, points) : new KMeansElkan(config, points);
+                }
+                return parallel ? new KMeansElkanParallel(config, data) : new KMeansElkan(config, data);
+            case HAMERLY:
+                if (points != null) {
+                    return parallel ? new KMeansHamerlyParallel(config, points) : new KMeansHamerly(config, points);
+                }
+                return parallel ? new KMeansHamerlyParallel(config, data) : new KMeansHamerly(config, data);
+            case YINYANG:
+                if (points != null) {
+                    return parallel ? new KMeansYinyangParallel(config, points) : new KMeansYinyang(config, points);
+                }
+                return parallel ? new KMeansYinyangParallel(config, data) : new KMeansYinyang(config, data);
+            case MINI_BATCH:
+                return points != null ? new KMeansMiniBatch(config, points) : new KMeansMiniBatch(config, data);
+            case KD_TREE:
+                return points != null ? new KMeansKdTree(config, points) : new KMeansKdTree(config, data);
+            case SHARDED:
+                if (points != null) {
+                    return parallel ? new KMeansShardedParallel(config, points) : new KMeansSequential(config, points);
+                }
+                return parallel ? new KMeansShardedParallel(config, data) : new KMeansSequential(config, data);
+            default:
+                if (points != null) {
+                    return parallel ? new KMeansParallel(config, points) : new KMeansSequential(config, points);
+                }
+                return parallel ? new KMeansParallel(config, data) : new KMeansSequential(config, data);
+        }
+    }
+
+    /**
+     * Start from copies of these centroids instead of random rows
+     */
+    void setInitialClusters(List<Cluster> initialClusters);
+
+    /**
+     * Run from the initial clusters to convergence or {@link KMeansConfig#getMaxIterations()}
+     */
+    void run();
+
+    /**
+     * Run at most maxIterations more iterations of the current run and publish the clusters, keeping
+     * the run's state (labels, running sums, bounds, sampler) for the next call, so a run can be
+     * advanced a round at a time at the cost of one uninterrupted run. The first call, and the first
+     * after {@link #setInitialClusters}, starts a new run; {@link #run()} always starts a new one.
+     * @return true once the run has converged or used up {@link KMeansConfig#getMaxIterations()}
+     */
+    boolean advance(int maxIterations);
+
+    List<Cluster> getClusters();
+
+    /**
+     * SSE of the last run's assignment against its final centroids
+     */
+    double computeSSE();
+
+    /**
+     * Per-cluster terms of {@link #computeSSE()}, indexed like {@link #getClusters()}
+     */
+    double[] computeClusterSSE();
+
+    int getIterationsCompleted();
+}
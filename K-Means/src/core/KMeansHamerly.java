@@ -0,0 +1,28 @@
+package core;
+
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+
+import java.util.List;
+
+/**
+ * Lloyd's algorithm with Hamerly's single upper and lower bound per row (see {@link HamerlyBounds}).
+ * Produces the same assignments as {@link KMeansSequential} but, once centroids settle, evaluates only a
+ * small fraction of the n*k point-centroid distances per iteration, with only two bounds per row.
+ */
+public class KMeansHamerly extends KMeansBounded {
+
+    public KMeansHamerly(KMeansConfig config, List<Point> points) {
+        super(config, points, PointMatrix.fromPoints(points), false, "Hamerly");
+    }
+
+    public KMeansHamerly(KMeansConfig config, DataSet data) {
+        super(config, null, data, false, "Hamerly");
+    }
+
+    @Override
+    AssignmentBounds createBounds(int n, int k, int dimension, int[] labels) {
+        return new HamerlyBounds(n, k, dimension, labels);
+    }
+}
@@ -0,0 +1,192 @@
+package core;
+
+import evaluation.SSECalculator;
+import model.Assignment;
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+import util.SamplingUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Lloyd's algorithm with the kd-tree filtering assignment of Kanungo et al. (see {@link KdTree}).
+ * The tree is built once per engine, in parallel, and reused by every run; each iteration then
+ * credits whole subtrees to a centroid from their cached sums, which on low-dimensional data
+ * (2-d synthetic, 3-d Mall) touches only the rows near cluster boundaries. Pays off for small d;
+ * beyond roughly 10 dimensions the cells stop separating and the bounded engines do better.
+ *
+ * Iterations never write per-row labels. After the last one a labelling pass assigns every row
+ * to the final centroids, so {@link #getClusters()} has the same form as {@link KMeansSequential}
+ * but memberships reflect the final centroids rather than the ones before the last update.
+ */
+public class KMeansKdTree implements KMeansEngine {
+
+    private final KMeansConfig config;
+    private final List<Point> points;   // original point objects, null when built from a matrix
+    private final DataSet data;
+    private final List<Cluster> clusters;
+    private final ForkJoinPool pool;
+    private double[] centroids;         // k x d working copy of the centroids during a run
+    private int[] labels;               // cluster index of every row
+    private int[] counts;               // rows per cluster
+    private int iterationsCompleted = 0;
+    private KdTree tree;                // built on the first run
+
+    // State of the current run, kept between calls to advance()
+    private boolean started;
+    private SplittableRandom random;    // empty-cluster reseeding
+    private int iteration;
+    private boolean converged;
+
+    
+    public KMeansKdTree(KMeansConfig config, List<Point> points) {
+        this(config, points, PointMatrix.fromPoints(points));
+    }
+
+    public KMeansKdTree(KMeansConfig config, DataSet data) {
+        this(config, null, data);
+    }
+
+    private KMeansKdTree(KMeansConfig config, List<Point> points, DataSet data) {
+        this.config = config;
+        this.points = points;
+        this.data = data;
+        this.clusters = new ArrayList<>();
+        this.pool = config.getPool(); // common pool unless the config supplies a dedicated one
+    }
+
+  
+    public void run() {
+        started = false;
+        advance(config.getMaxIterations());
+        if (config.isVerbose()) {
+            System.out.println("Kd-tree K-Means finished in " + iteration + " iterations");
+        }
+    }
+
+    /**
+     * Also ends with a labelling pass, so every call pays one pass over the tree on top of its iterations
+     */
+    public boolean advance(int maxIterations) {
+        if (!started) {
+            start();
+        }
+        int dim = data.getDimension();
+        int k = clusters.size();
+        int stop = (int) Math.min(config.getMaxIterations(), (long) iteration + maxIterations);
+
+        while (!converged && iteration < stop) {
+            // Filtering pass: per-cluster sums and counts, mostly from whole subtrees
+            ClusterAccumulator partials = tree.assign(centroids, k, null, pool);
+            counts = partials.getCounts();
+
+            // Handle empty clusters; reseeding needs the labels, so only then are they written
+            if (hasEmptyCluster(counts)) {
+                int[] current = new int[data.size()];
+                tree.assign(centroids, k, current, pool);
+                KMeansSupport.handleEmptyClusters(data, current, counts, centroids, random);
+            }
+
+            // New centroids straight from the merged sums (O(k*d), no second pass)
+            converged = KMeansSupport.applySums(partials.getSums(), counts, centroids, dim, config.getTolerance());
+
+            iteration++;
+        }
+
+        // Labelling pass against the current centroids
+        labels = new int[data.size()];
+        counts = tree.assign(centroids, k, labels, pool).getCounts();
+        KMeansSupport.publish(clusters, centroids, dim, new Assignment(labels, counts, this::pointAt));
+
+        iterationsCompleted = iteration;
+        return converged || iteration >= config.getMaxIterations();
+    }
+
+    // Fresh run state from the initial clusters, or from random rows when none were set
+    private void start() {
+        random = config.newRandom(); // initial rows and empty-cluster reseeding
+
+        // Only initialize if clusters are empty (allows for custom initialization)
+        if (clusters.isEmpty()) {
+            initializeClusters(random);
+        }
+
+        if (tree == null) {
+            tree = new KdTree(data, pool);
+        }
+
+        centroids = KMeansSupport.centroidArray(clusters, data.getDimension());
+        labels = null;
+        counts = new int[clusters.size()];
+        converged = false;
+        iteration = 0;
+        started = true;
+    }
+
+    private static boolean hasEmptyCluster(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public int getIterationsCompleted() {
+        return iterationsCompleted;
+    }
+
+    private void initializeClusters(SplittableRandom random) {
+        clusters.clear();
+        int k = Math.min(config.getK(), data.size());
+
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(pointAt(row)));
+        }
+    }
+
+    // Original Point object for a row when available, otherwise a copy materialized from the matrix
+    private Point pointAt(int row) {
+        return points != null ? points.get(row) : data.getPoint(row);
+    }
+
+ 
+    public void setInitialClusters(List<Cluster> initialClusters) {
+        clusters.clear();
+        started = false;
+        // Create deep copies to avoid reference issues
+        for (Cluster original : initialClusters) {
+            Cluster copy = new Cluster(new Point(original.getCentroid().getCoordinates()));
+            clusters.add(copy);
+        }
+    }
+
+    /**
+     * Exact SSE in one compensated fork/join pass; the tree credits whole nodes through
+     * sum ||x||^2 - 2 c.sum x + m ||c||^2, which loses precision when the terms nearly cancel
+     */
+    public double computeSSE() {
+        if (labels == null) {
+            return 0.0;
+        }
+        return SSECalculator.computeSSE(data, labels, centroids, pool);
+    }
+
+    public double[] computeClusterSSE() {
+        if (labels == null) {
+            return new double[clusters.size()];
+        }
+        return SSECalculator.computeClusterSSE(data, labels, centroids, pool);
+    }
+
+    public List<Cluster> getClusters() {
+        return clusters;
+    }
+
+   
+}
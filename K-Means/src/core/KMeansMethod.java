@@ -0,0 +1,40 @@
+package core;
+
+/**
+ * Algorithm run by the engine {@link KMeansEngine#create} builds. The exact methods converge to
+ * the same result from the same initial centroids and differ only in how many distances they
+ * evaluate; mini-batch trades a slightly higher SSE for much cheaper iterations.
+ */
+public enum KMeansMethod {
+    /** Plain Lloyd iterations: n*k distances per iteration */
+    LLOYD("Lloyd"),
+
+    /** Elkan's bounds: n*k lower bounds, fewest distances; suits larger k and d */
+    ELKAN("Elkan"),
+
+    /** Hamerly's bounds: two bounds per row; suits low-dimensional data */
+    HAMERLY("Hamerly"),
+
+    /** Yinyang's grouped bounds: one bound per group of centroids; suits k in the hundreds */
+    YINYANG("Yinyang"),
+
+    /** Mini-batch updates: approximate, O(b*k*d) per step; batches are assigned on the configured pool either way */
+    MINI_BATCH("Mini-batch"),
+
+    /** Kd-tree filtering: whole subtrees per centroid; suits millions of rows in 2-3 dimensions; always uses the configured pool */
+    KD_TREE("Kd-tree"),
+
+    /** Lloyd on long-lived workers, one static shard each, sized by the configured pool's parallelism; sequential Lloyd otherwise */
+    SHARDED("Sharded");
+
+    private final String displayName;
+
+    KMeansMethod(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,325 @@
+package core;
+
+import evaluation.SSECalculator;
+import model.Assignment;
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+import util.SamplingUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/**
+ * Mini-batch k-means (Sculley, WWW 2010). Each iteration samples {@link KMeansConfig#getMiniBatchSize()}
+ * rows, assigns them to the current centroids and moves every centroid toward the batch rows it won
+ * with a per-centroid learning rate of 1 / (rows it has won so far). The step costs O(b*k*d) instead
+ * of O(n*k*d), so maxIterations counts mini-batches, not passes over the data.
+ *
+ * Applying the per-row updates c += (x - c) / v one by one keeps each centroid at the running mean of
+ * every row it has won, so a batch is folded in from its per-cluster sums and counts in O(k*d).
+ * The batch is assigned with {@link KMeansAssignTask} on the configured pool, using one kernel of
+ * the configured {@link AssignmentStrategy} for the whole run and leaves sized by the configured
+ * {@link TaskGranularity}. A centroid that has not won a single row in the last
+ * {@value #IDLE_ROWS_PER_CENTROID}*k sampled rows (that many wins short of an even share), whether it
+ * never won or starved after winning early, is dead: like an empty cluster in the other engines it is
+ * moved onto a batch row of the largest batch cluster, and its learning rate starts over.
+ *
+ * With {@link KMeansConfig#isMiniBatchFinalPass()} a last full assignment labels every row, so
+ * {@link #getClusters()} carries memberships and {@link #computeSSE()} is exact, taken from that
+ * pass at no extra cost. Without it the clusters only carry centroids and {@link #computeSSE()}
+ * returns NaN.
+ */
+public class KMeansMiniBatch implements KMeansEngine {
+
+    private static final int IDLE_ROWS_PER_CENTROID = 30; // sampled rows per centroid without a win before it is dead
+
+    private final KMeansConfig config;
+    private final List<Point> points;   // original point objects, null when built from a matrix
+    private final DataSet data;
+    private final List<Cluster> clusters;
+    private final ForkJoinPool pool;
+    private double[] centroids;         // k x d working copy of the centroids during a run
+    private int[] labels;               // cluster index of every row, only after the final pass
+    private double[] clusterSSE;        // per-cluster SSE of the final pass
+    private int iterationsCompleted = 0;
+
+    // State of the current run, kept between calls to advance()
+    private boolean started;
+    private Batches batches;
+    private int iteration;
+    private boolean converged;
+
+    public KMeansMiniBatch(KMeansConfig config, List<Point> points) {
+        this(config, points, PointMatrix.fromPoints(points));
+    }
+
+    public KMeansMiniBatch(KMeansConfig config, DataSet data) {
+        this(config, null, data);
+    }
+
+    private KMeansMiniBatch(KMeansConfig config, List<Point> points, DataSet data) {
+        if (data.size() == 0) {
+            throw new IllegalArgumentException("Dataset cannot be null or empty");
+        }
+        this.config = config;
+        this.points = points;
+        this.data = data;
+        this.clusters = new ArrayList<>();
+        this.pool = config.getPool(); // common pool unless the config supplies a dedicated one
+    }
+
+    public void run() {
+        started = false;
+        advance(config.getMaxIterations());
+        if (config.isVerbose()) {
+            System.out.println("Mini-batch K-Means finished in " + iteration + " batches of " +
+                    config.getMiniBatchSize());
+        }
+    }
+
+    /**
+     * Also ends with the final pass when it is enabled, so every call pays one full-data pass on top
+     * of its mini-batches
+     */
+    public boolean advance(int maxIterations) {
+        if (!started) {
+            start();
+        }
+        int stop = (int) Math.min(config.getMaxIterations(), (long) iteration + maxIterations);
+
+        while (!converged && iteration < stop) {
+            converged = batches.step();
+            iteration++;
+        }
+
+        int n = data.size();
+        int dim = data.getDimension();
+        int k = clusters.size();
+        if (config.isMiniBatchFinalPass()) {
+            // Exact full-data assignment with the current centroids
+            labels = new int[n];
+            AssignmentKernel kernel = config.getAssignmentStrategy().createKernel(data, k);
+            kernel.setCentroids(centroids);
+            int leafSize = config.getGranularity().initialLeafSize(n, k, dim, pool.getParallelism(),
+                    config.getLeafSize());
+            ClusterAccumulator partials = pool.invoke(new KMeansAssignTask(data, 0, n, kernel, labels, leafSize));
+            clusterSSE = partials.getClusterSSE();
+            KMeansSupport.publish(clusters, centroids, dim, new Assignment(labels, partials.getCounts(), this::pointAt));
+        } else {
+            for (int c = 0; c < k; c++) {
+                double[] coords = new double[dim];
+                System.arraycopy(centroids, c * dim, coords, 0, dim);
+                clusters.get(c).setCentroid(new Point(coords));
+                clusters.get(c).clearPoints();
+            }
+        }
+
+        iterationsCompleted = iteration;
+        return converged || iteration >= config.getMaxIterations();
+    }
+
+    // Fresh run state from the initial clusters, or from random rows when none were set
+    private void start() {
+        SplittableRandom random = config.newRandom(); // initial rows and batch sampling
+
+        // Only initialize if clusters are empty (allows for custom initialization)
+        if (clusters.isEmpty()) {
+            initializeClusters(random);
+        }
+
+        centroids = KMeansSupport.centroidArray(clusters, data.getDimension());
+        labels = null;
+        clusterSSE = null;
+        batches = new Batches(random);
+        converged = false;
+        iteration = 0;
+        started = true;
+    }
+
+    public int getIterationsCompleted() {
+        return iterationsCompleted;
+    }
+
+    private void initializeClusters(SplittableRandom random) {
+        clusters.clear();
+        int k = Math.min(config.getK(), data.size());
+
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(pointAt(row)));
+        }
+    }
+
+    // Original Point object for a row when available, otherwise a copy materialized from the matrix
+    private Point pointAt(int row) {
+        return points != null ? points.get(row) : data.getPoint(row);
+    }
+
+    public void setInitialClusters(List<Cluster> initialClusters) {
+        clusters.clear();
+        started = false;
+        // Create deep copies to avoid reference issues
+        for (Cluster original : initialClusters) {
+            Cluster copy = new Cluster(new Point(original.getCentroid().getCoordinates()));
+            clusters.add(copy);
+        }
+    }
+
+    /**
+     * Exact SSE of the final assignment, from the final pass; NaN when the final pass is disabled
+     */
+    public double computeSSE() {
+        if (clusterSSE == null) {
+            return Double.NaN;
+        }
+        return SSECalculator.total(clusterSSE);
+    }
+
+    public double[] computeClusterSSE() {
+        if (clusterSSE == null) {
+            double[] unknown = new double[clusters.size()];
+            Arrays.fill(unknown, Double.NaN);
+            return unknown;
+        }
+        return clusterSSE.clone();
+    }
+
+    public List<Cluster> getClusters() {
+        return clusters;
+    }
+
+    /**
+     * Sampler, reusable batch buffer and per-centroid learning state of one run
+     */
+    private final class Batches {
+        private final SplittableRandom random;  // batch sampling and reseeding
+        private final int batchSize;
+        private final long[] won;               // rows each centroid has won since it was placed
+        private final long[] idle;              // rows sampled since each centroid last won or was reseeded
+        private final double[] batch;
+        private final PointMatrix batchRows;
+        private final int[] batchLabels;
+        private final BatchSampler sampler;
+        private final AssignmentKernel batchKernel;
+        private final int batchLeafSize;
+        private final boolean[] dead;
+
+        Batches(SplittableRandom random) {
+            int dim = data.getDimension();
+            int k = clusters.size();
+            this.random = random;
+            this.batchSize = config.getMiniBatchSize();
+            this.won = new long[k];
+            this.idle = new long[k];
+            this.batch = new double[batchSize * dim];
+            this.batchRows = new PointMatrix(batch, dim);
+            this.batchLabels = new int[batchSize];
+            this.sampler = new BatchSampler(data.size(), config.getMiniBatchSampling(), random);
+            this.batchKernel = config.getAssignmentStrategy().createKernel(batchRows, k);
+            this.batchLeafSize = config.getGranularity().initialLeafSize(batchSize, k, dim, pool.getParallelism(),
+                    config.getLeafSize());
+            this.dead = new boolean[k];
+        }
+
+        // One mini-batch step; true when no centroid moved more than the tolerance
+        boolean step() {
+            int dim = data.getDimension();
+            int k = won.length;
+
+            // 1. Sample a mini-batch into the reusable buffer
+            for (int r = 0; r < batchSize; r++) {
+                data.copyRow(sampler.next(), batch, r * dim);
+            }
+            batchKernel.rowsChanged(batchRows, 0, batchSize);
+
+            // 2. Assign the batch, with per-cluster sums and counts
+            batchKernel.setCentroids(centroids);
+            ClusterAccumulator partials = pool.invoke(
+                    new KMeansAssignTask(batchRows, 0, batchSize, batchKernel, batchLabels, batchLeafSize));
+
+            // 3. Per-centroid learning rate 1/v: fold the batch into each running mean
+            boolean converged = true;
+            double[] sums = partials.getSums();
+            int[] counts = partials.getCounts();
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) {
+                    idle[c] += batchSize;
+                    continue;
+                }
+                idle[c] = 0;
+                won[c] += counts[c];
+                double rate = 1.0 / won[c];
+                double movement = 0;
+                for (int j = 0, idx = c * dim; j < dim; j++, idx++) {
+                    double step = (sums[idx] - counts[c] * centroids[idx]) * rate;
+                    centroids[idx] += step;
+                    movement += step * step;
+                }
+                if (Math.sqrt(movement) > config.getTolerance()) {
+                    converged = false;
+                }
+            }
+
+            // 4. Reseed dead centroids
+            boolean anyDead = false;
+            for (int c = 0; c < k; c++) {
+                dead[c] = idle[c] >= (long) IDLE_ROWS_PER_CENTROID * k;
+                if (dead[c]) {
+                    anyDead = true;
+                    idle[c] = 0;
+                    won[c] = 0; // restart its learning rate at the new position
+                }
+            }
+            if (anyDead && KMeansSupport.reseedClusters(batchRows, batchLabels, counts, centroids, dead, random) > 0) {
+                converged = false;
+            }
+            return converged;
+        }
+    }
+
+    /**
+     * Row indexes for the mini-batches, drawn as configured by {@link MiniBatchSampling}
+     */
+    private static final class BatchSampler {
+        private final int n;
+        private final RandomGenerator random;
+        private final int[] permutation; // SHUFFLED only
+        private int position;
+
+        BatchSampler(int n, MiniBatchSampling sampling, RandomGenerator random) {
+            this.n = n;
+            this.random = random;
+            if (sampling == MiniBatchSampling.SHUFFLED) {
+                permutation = new int[n];
+                for (int i = 0; i < n; i++) {
+                    permutation[i] = i;
+                }
+                position = n; // shuffle on first use
+            } else {
+                permutation = null;
+            }
+        }
+
+        int next() {
+            if (permutation == null) {
+                return random.nextInt(n);
+            }
+            if (position == n) {
+                // new epoch: Fisher-Yates reshuffle
+                for (int i = n - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = permutation[i];
+                    permutation[i] = permutation[j];
+                    permutation[j] = tmp;
+                }
+                position = 0;
+            }
+            return permutation[position++];
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package core;
+
+import model.Cluster;
+import model.Point;
+import util.DistanceUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Flow;
+
+/**
+ * Online k-means over an unbounded stream (MacQueen, 1967). Each arriving point moves its nearest
+ * centroid by (x - c) / n, where n counts the points that centroid has absorbed, so memory stays at
+ * k centroids and k counts no matter how long the stream runs.
+ *
+ * The first {@code warmUpSize} points are buffered and seeded with k-means++
+ * ({@link KMeansSupport#kMeansPlusPlusRows}), then replayed through the update rule; the buffer is released afterwards. With a decay factor
+ * below 1 the winner's count is multiplied by it before each update, which caps the effective
+ * memory of a centroid at about 1 / (1 - decay) points and lets it follow a drifting stream.
+ *
+ * Points can be pushed with {@link #accept}, pulled from an {@link Iterator}, or delivered by a
+ * {@link Flow.Publisher}: as a subscriber this engine requests {@code requestBatch} items at a
+ * time, so a fast publisher cannot overrun it. All methods are synchronized, so
+ * {@link #snapshot()} can be called from any thread while the stream is being consumed.
+ */
+public class KMeansOnline implements Flow.Subscriber<Point> {
+
+    private static final int DEFAULT_REQUEST_BATCH = 256;
+
+    private final int k;
+    private final int warmUpSize;
+    private final double decay;
+    private final int requestBatch;
+    private final SplittableRandom random; // k-means++ seeding of the warm-up buffer
+    private int dimension;
+    private double[] warmUp;            // flat warm-up buffer, null once seeded
+    private int buffered;
+    private double[] centroids;         // k x d, null until seeded
+    private double[] counts;            // points absorbed per centroid (fractional with decay)
+    private int numCentroids;
+    private long pointsSeen;
+    private Flow.Subscription subscription;
+    private int outstanding;            // items requested from the publisher but not yet received
+    private boolean done;               // the publisher completed or failed
+    private Throwable failure;
+
+    public KMeansOnline(KMeansConfig config, int warmUpSize) {
+        this(config, warmUpSize, 1.0, DEFAULT_REQUEST_BATCH);
+    }
+
+    /**
+     * @param warmUpSize   points buffered before seeding; at least k
+     * @param decay        factor in (0, 1] applied to the winner's count before each update; 1 disables decay
+     * @param requestBatch items requested from a publisher at a time
+     */
+    public KMeansOnline(KMeansConfig config, int warmUpSize, double decay, int requestBatch) {
+        if (warmUpSize < config.getK()) {
+            throw new IllegalArgumentException("warmUpSize must be at least k=" + config.getK());
+        }
+        if (!(decay > 0 && decay <= 1)) {
+            throw new IllegalArgumentException("decay must be in (0, 1]");
+        }
+        if (requestBatch <= 0) {
+            throw new IllegalArgumentException("requestBatch must be positive");
+        }
+        this.k = config.getK();
+        this.warmUpSize = warmUpSize;
+        this.decay = decay;
+        this.requestBatch = requestBatch;
+        this.random = config.newRandom();
+    }
+
+    /**
+     * Feed one point
+     */
+    public synchronized void accept(Point point) {
+        accept(point.getCoordinates());
+    }
+
+    public synchronized void accept(double[] coords) {
+        if (pointsSeen == 0 && centroids == null) {
+            dimension = coords.length;
+            warmUp = new double[Math.multiplyExact(warmUpSize, dimension)];
+        } else if (coords.length != dimension) {
+            throw new IllegalArgumentException("Point has dimension " + coords.length +
+                    " but the stream has dimension " + dimension + ".");
+        }
+        pointsSeen++;
+
+        if (centroids != null) {
+            update(coords, 0);
+            return;
+        }
+        System.arraycopy(coords, 0, warmUp, buffered * dimension, dimension);
+        buffered++;
+        if (buffered == warmUpSize) {
+            seed();
+        }
+    }
+
+    /**
+     * Drain an iterator into the model, then {@link #finish()} it
+     */
+    public void consume(Iterator<Point> source) {
+        while (source.hasNext()) {
+            accept(source.next());
+        }
+        finish();
+    }
+
+    /**
+     * End of a stream shorter than the warm-up: seed from whatever was buffered, so
+     * {@link #snapshot()} has centroids. Does nothing once seeded or before any point; points
+     * accepted afterwards update the centroids as usual.
+     */
+    public synchronized void finish() {
+        if (centroids == null && buffered > 0) {
+            seed();
+        }
+    }
+
+    /**
+     * Subscribe to a publisher; points arrive through {@link #onNext}
+     */
+    public void subscribe(Flow.Publisher<Point> publisher) {
+        publisher.subscribe(this);
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel(); // one source at a time
+            return;
+        }
+        this.subscription = subscription;
+        done = false; // a new source: forget how the previous one ended
+        failure = null;
+        outstanding = requestBatch;
+        subscription.request(requestBatch);
+    }
+
+    @Override
+    public synchronized void onNext(Point item) {
+        if (subscription == null) {
+            return; // already cancelled
+        }
+        try {
+            accept(item);
+        } catch (IllegalArgumentException e) {
+            // A subscriber must not throw at its publisher (Reactive Streams rule 2.13): cancel and fail instead
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+        if (--outstanding == 0) {
+            outstanding = requestBatch;
+            subscription.request(requestBatch);
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        subscription = null;
+        failure = throwable;
+        done = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        subscription = null;
+        done = true;
+        finish(); // short stream: seed from whatever arrived
+        notifyAll();
+    }
+
+    /**
+     * Block until the subscribed publisher completes
+     * @throws IllegalStateException if the publisher signalled an error
+     */
+    public synchronized void awaitCompletion() throws InterruptedException {
+        while (!done) {
+            wait();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Point source failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Copies of the current centroids as clusters without points; empty until the warm-up is seeded
+     */
+    public synchronized List<Cluster> snapshot() {
+        List<Cluster> clusters = new ArrayList<>(numCentroids);
+        for (int c = 0; c < numCentroids; c++) {
+            double[] coords = new double[dimension];
+            System.arraycopy(centroids, c * dimension, coords, 0, dimension);
+            clusters.add(new Cluster(new Point(coords)));
+        }
+        return clusters;
+    }
+
+    /**
+     * Points absorbed by each centroid (decayed when a decay factor is set)
+     */
+    public synchronized double[] getCounts() {
+        return counts == null ? new double[0] : counts.clone();
+    }
+
+    public synchronized long getPointsSeen() {
+        return pointsSeen;
+    }
+
+    public synchronized boolean isSeeded() {
+        return centroids != null;
+    }
+
+    // k-means++ on the warm-up buffer, then replay the buffer through the update rule
+    private void seed() {
+        numCentroids = Math.min(k, buffered);
+        int[] seeds = KMeansSupport.kMeansPlusPlusRows(warmUp, buffered, dimension, numCentroids, random);
+        centroids = new double[numCentroids * dimension];
+        for (int c = 0; c < numCentroids; c++) {
+            System.arraycopy(warmUp, seeds[c] * dimension, centroids, c * dimension, dimension);
+        }
+        counts = new double[numCentroids];
+
+        for (int r = 0; r < buffered; r++) {
+            update(warmUp, r * dimension);
+        }
+        warmUp = null;
+    }
+
+    // MacQueen step: move the nearest centroid toward the point by 1 / (its count)
+    private void update(double[] coords, int offset) {
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for (int c = 0; c < numCentroids; c++) {
+            double d = DistanceUtils.squaredDistance(coords, offset, centroids, c * dimension, dimension);
+            if (d < best) {
+                best = d;
+                nearest = c;
+            }
+        }
+
+        counts[nearest] = counts[nearest] * decay + 1;
+        double rate = 1.0 / counts[nearest];
+        int base = nearest * dimension;
+        for (int j = 0; j < dimension; j++) {
+            centroids[base + j] += (coords[offset + j] - centroids[base + j]) * rate;
+        }
+    }
+}
@@ -1,87 +1,157 @@
 package core;
 
+import evaluation.SSECalculator;
+import model.Assignment;
 import model.Cluster;
+import model.DataSet;
 import model.Point;
-import util.DistanceUtils;
-import util.RandomUtils;
+import model.PointMatrix;
+import util.SamplingUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveAction;
-import java.util.concurrent.RecursiveTask;
 
-public class KMeansParallel {
+public class KMeansParallel implements KMeansEngine {
 
     private final KMeansConfig config;
-    private final List<Point> points;
+    private final List<Point> points;   // original point objects, null when built from a matrix
+    private final DataSet data;
     private final List<Cluster> clusters;
     private final ForkJoinPool pool;
+    private double[] centroids;         // k x d working copy of the centroids during a run
+    private int[] labels;               // cluster index of every row
+    private int[] counts;               // rows per cluster
+    private double[] clusterSSE;        // per-cluster SSE against the final centroids
     private int iterationsCompleted = 0;
+    private int leafSize;               // rows per leaf task in the last run
+
+    // State of the current run, kept between calls to advance()
+    private boolean started;
+    private SplittableRandom random;    // empty-cluster reseeding
+    private AssignmentKernel kernel;
+    private RunningSums running;        // per-cluster sums kept across passes
+    private int iteration;
+    private boolean converged;
 
     
     public KMeansParallel(KMeansConfig config, List<Point> points) {
+        this(config, points, PointMatrix.fromPoints(points));
+    }
+
+    public KMeansParallel(KMeansConfig config, DataSet data) {
+        this(config, null, data);
+    }
+
+    private KMeansParallel(KMeansConfig config, List<Point> points, DataSet data) {
         this.config = config;
         this.points = points;
+        this.data = data;
         this.clusters = new ArrayList<>();
-        this.pool = ForkJoinPool.commonPool(); // uses all available cores
+        this.pool = config.getPool(); // common pool unless the config supplies a dedicated one
     }
 
   
     public void run() {
-        // Only initialize if clusters are empty (allows for custom initialization)
-        if (clusters.isEmpty()) {
-            initializeClusters();
+        started = false;
+        advance(config.getMaxIterations());
+        if (config.isVerbose()) {
+            System.out.println("Parallel K-Means finished in " + iteration + " iterations");
         }
+    }
 
-        boolean converged = false;
-        int iteration = 0;
-
-        while (!converged && iteration < config.getMaxIterations()) {
-            // Clear points
-            clusters.forEach(Cluster::clearPoints);
-
-            // Parallel assignment of points using local-reduce-merge pattern
-            KMeansAssignTask assignTask = new KMeansAssignTask(points, 0, points.size(), clusters);
-            Map<Integer, List<Point>> assignments = pool.invoke(assignTask);
-            // Merge local accumulations into clusters
-            KMeansAssignTask.mergeIntoClusters(assignments, clusters);
+    public boolean advance(int maxIterations) {
+        if (!started) {
+            start();
+        }
+        int dim = data.getDimension();
+        TaskGranularity granularity = config.getGranularity();
+        int stop = (int) Math.min(config.getMaxIterations(), (long) iteration + maxIterations);
+
+        while (!converged && iteration < stop) {
+            // Fused parallel pass: labels plus per-cluster sums, counts and SSE merged up the tree
+            boolean delta = running.nextPassIsDelta(); // full pass first and every few passes
+            kernel.setCentroids(centroids);
+            long passStart = System.nanoTime();
+            KMeansAssignTask assignTask = new KMeansAssignTask(data, 0, data.size(), kernel, labels, leafSize, delta);
+            ClusterAccumulator partials = pool.invoke(assignTask);
+            if (iteration == 1) { // the first pass also pays for JIT compilation
+                leafSize = granularity.calibratedLeafSize(System.nanoTime() - passStart, data.size(),
+                        pool.getParallelism(), leafSize);
+            }
+            running.fold(partials, delta);
+            counts = running.getCounts();
+            clusterSSE = partials.getClusterSSE(); // every pass scores all rows, delta or not
 
             // Handle empty clusters
-            handleEmptyClusters();
+            KMeansSupport.handleEmptyClusters(data, labels, counts, centroids, random);
 
-            // Parallel centroid recomputation
-            converged = pool.invoke(new RecomputeCentroidsTask(clusters, 0, clusters.size(), this.config));
+            // New centroids straight from the merged sums (O(k*d), no second pass)
+            converged = KMeansSupport.applySums(running.getSums(), counts, centroids, dim,
+                    config.getTolerance(), clusterSSE)
+                    || KMeansSupport.labelsStable(config, iteration, partials.getReassignments(), counts);
 
             iteration++;
         }
 
+        KMeansSupport.publish(clusters, centroids, dim, new Assignment(labels, counts, this::pointAt));
+
         iterationsCompleted = iteration;
-        System.out.println("Parallel K-Means finished in " + iteration + " iterations");
+        return converged || iteration >= config.getMaxIterations();
+    }
+
+    // Fresh run state from the initial clusters, or from random rows when none were set
+    private void start() {
+        random = config.newRandom(); // initial rows and empty-cluster reseeding
+
+        // Only initialize if clusters are empty (allows for custom initialization)
+        if (clusters.isEmpty()) {
+            initializeClusters(random);
+        }
+
+        int dim = data.getDimension();
+        centroids = KMeansSupport.centroidArray(clusters, dim);
+        labels = new int[data.size()];
+        counts = new int[clusters.size()];
+        clusterSSE = null;
+        kernel = config.getAssignmentStrategy().createKernel(data, clusters.size());
+        leafSize = config.getGranularity().initialLeafSize(data.size(), clusters.size(), dim,
+                pool.getParallelism(), config.getLeafSize());
+        running = new RunningSums(config); // per-cluster sums kept across passes
+        converged = false;
+        iteration = 0;
+        started = true;
     }
     
     public int getIterationsCompleted() {
         return iterationsCompleted;
     }
+
+    /**
+     * Leaf size the assignment tasks used in the last run (after calibration, for MEASURED)
+     */
+    public int getLeafSize() {
+        return leafSize;
+    }
     
     
 
    
-    private void initializeClusters() {
+    private void initializeClusters(SplittableRandom random) {
         clusters.clear();
-        List<Point> shuffled = new ArrayList<>(points);
-        Collections.shuffle(shuffled, new Random());
+        int k = Math.min(config.getK(), data.size());
 
-        int k = Math.min(config.getK(), shuffled.size());
-        
-        for (int i = 0; i < k; i++) {
-            clusters.add(new Cluster(shuffled.get(i)));
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(pointAt(row)));
         }
     }
 
+    // Original Point object for a row when available, otherwise a copy materialized from the matrix
+    private Point pointAt(int row) {
+        return points != null ? points.get(row) : data.getPoint(row);
+    }
+
  
     public void setInitialClusters(List<Cluster> initialClusters) {
         int k = Math.min(config.getK(), initialClusters.size());
@@ -89,6 +159,7 @@ public class KMeansParallel {
 //            throw new IllegalArgumentException("Initial clusters must be non-null and match k=" + config.getK());
 //        }
         clusters.clear();
+        started = false;
         // Create deep copies to avoid reference issues
         for (Cluster original : initialClusters) {
             Cluster copy = new Cluster(new Point(original.getCentroid().getCoordinates()));
@@ -96,55 +167,29 @@ public class KMeansParallel {
         }
     }
 
+    /**
+     * Exact SSE from the last assignment pass, carried over to the final centroids; no extra pass
+     */
     public double computeSSE() {
-        double sse = 0.0;
-        for (Cluster c : clusters) {
-            Point centroid = c.getCentroid();
-            for (Point p : c.getPoints()) {
-                double dist = DistanceUtils.distance(p, centroid);
-                sse += dist * dist;
-            }
+        if (labels == null) {
+            return 0.0;
         }
-        return sse;
-    }
-
-    public List<Cluster> getClusters() {
-        return clusters;
+        return SSECalculator.total(computeClusterSSE());
     }
 
-    private void handleEmptyClusters() {
-        // Find empty clusters
-        List<Cluster> emptyClusters = new ArrayList<>();
-        Cluster largestCluster = null;
-        int maxSize = 0;
-
-        for (Cluster c : clusters) {
-            if (c.getPoints().isEmpty()) {
-                emptyClusters.add(c);
-            } else {
-                // Track the largest cluster to steal a point from
-                if (c.getPoints().size() > maxSize) {
-                    maxSize = c.getPoints().size();
-                    largestCluster = c;
-                }
-            }
+    public double[] computeClusterSSE() {
+        if (labels == null) {
+            return new double[clusters.size()];
         }
-
-        for (Cluster emptyCluster : emptyClusters) {
-            if (largestCluster != null && !largestCluster.getPoints().isEmpty()) {
-                List<Point> largestPoints = largestCluster.getPoints();
-                Point randomPoint = largestPoints.get(RandomUtils.nextInt(largestPoints.size()));
-                emptyCluster.setCentroid(new Point(randomPoint.getCoordinates()));
-            } else {
-                if (!points.isEmpty()) {
-                    Point randomPoint = points.get(RandomUtils.nextInt(points.size()));
-                    emptyCluster.setCentroid(new Point(randomPoint.getCoordinates()));
-                }
-            }
+        if (clusterSSE == null) { // no pass ran
+            return SSECalculator.computeClusterSSE(data, labels, centroids);
         }
+        return clusterSSE.clone();
     }
 
-    
+    public List<Cluster> getClusters() {
+        return clusters;
+    }
 
    
 }
@@ -1,56 +1,113 @@
 package core;
 
+import evaluation.SSECalculator;
+import model.Assignment;
 import model.Cluster;
+import model.DataSet;
 import model.Point;
-import util.DistanceUtils;
-import util.RandomUtils;
+import model.PointMatrix;
+import model.RowTiles;
+import util.SamplingUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
-public class KMeansSequential {
+public class KMeansSequential implements KMeansEngine {
 
     private final KMeansConfig config;
-    private final List<Point> points;
+    private final List<Point> points;   // original point objects, null when built from a matrix
+    private final DataSet data;
     private final List<Cluster> clusters;
+    private double[] centroids;         // k x d working copy of the centroids during a run
+    private int[] labels;               // cluster index of every row
+    private int[] counts;               // rows per cluster
+    private double[] clusterSSE;        // per-cluster SSE against the final centroids
     private int iterationsCompleted = 0;
 
+    // State of the current run, kept between calls to advance()
+    private boolean started;
+    private SplittableRandom random;    // empty-cluster reseeding
+    private AssignmentKernel kernel;
+    private RunningSums running;        // per-cluster sums kept across passes
+    private int iteration;
+    private boolean converged;
+
     public KMeansSequential(KMeansConfig config, List<Point> points) {
+        this(config, points, PointMatrix.fromPoints(points));
+    }
+
+    public KMeansSequential(KMeansConfig config, DataSet data) {
+        this(config, null, data);
+    }
+
+    private KMeansSequential(KMeansConfig config, List<Point> points, DataSet data) {
         this.config = config;
         this.points = points;
+        this.data = data;
         this.clusters = new ArrayList<>();
     }
 
 
     public void run() {
-        // Only initialize if clusters are empty (allows for custom initialization)
-        if (clusters.isEmpty()) {
-            initializeClusters();
+        started = false;
+        advance(config.getMaxIterations());
+        if (config.isVerbose()) {
+            System.out.println("Sequential K-Means finished in " + iteration + " iterations");
         }
+    }
 
-        boolean converged = false;
-        int iteration = 0;
+    public boolean advance(int maxIterations) {
+        if (!started) {
+            start();
+        }
+        int dim = data.getDimension();
+        int stop = (int) Math.min(config.getMaxIterations(), (long) iteration + maxIterations);
+
+        while (!converged && iteration < stop) {
+            // 1. Assign each point to nearest cluster, accumulating sums and counts in the same pass
+            boolean delta = running.nextPassIsDelta(); // full pass first and every few passes
+            kernel.setCentroids(centroids);
+            ClusterAccumulator partials = assignPointsToClusters(kernel, delta);
+            running.fold(partials, delta);
+            counts = running.getCounts();
+            clusterSSE = partials.getClusterSSE(); // every pass scores all rows, delta or not
+
+            // 2. Handle empty clusters
+            KMeansSupport.handleEmptyClusters(data, labels, counts, centroids, random);
+
+            // 3. Recompute centroids from the sums and check convergence
+            converged = KMeansSupport.applySums(running.getSums(), counts, centroids, dim,
+                    config.getTolerance(), clusterSSE)
+                    || KMeansSupport.labelsStable(config, iteration, partials.getReassignments(), counts);
 
-        while (!converged && iteration < config.getMaxIterations()) {
-            // 1. Clear previous points in each cluster
-            clusters.forEach(Cluster::clearPoints);
+            iteration++;
+        }
 
-            // 2. Assign each point to nearest cluster
-            assignPointsToClusters();
+        KMeansSupport.publish(clusters, centroids, dim, new Assignment(labels, counts, this::pointAt));
 
-            // 3. Handle empty clusters
-            handleEmptyClusters();
+        iterationsCompleted = iteration;
+        return converged || iteration >= config.getMaxIterations();
+    }
 
-            // 4. Recompute centroids and check convergence
-            converged = recomputeCentroids();
+    // Fresh run state from the initial clusters, or from random rows when none were set
+    private void start() {
+        random = config.newRandom(); // initial rows and empty-cluster reseeding
 
-            iteration++;
+        // Only initialize if clusters are empty (allows for custom initialization)
+        if (clusters.isEmpty()) {
+            initializeClusters(random);
         }
 
-        iterationsCompleted = iteration;
-        System.out.println("Sequential K-Means finished in " + iteration + " iterations");
+        centroids = KMeansSupport.centroidArray(clusters, data.getDimension());
+        labels = new int[data.size()];
+        counts = new int[clusters.size()];
+        clusterSSE = null;
+        kernel = config.getAssignmentStrategy().createKernel(data, clusters.size());
+        running = new RunningSums(config); // per-cluster sums kept across passes
+        converged = false;
+        iteration = 0;
+        started = true;
     }
     
     public int getIterationsCompleted() {
@@ -58,15 +115,12 @@ public class KMeansSequential {
     }
 
     
-    private void initializeClusters() {
+    private void initializeClusters(SplittableRandom random) {
         clusters.clear();
-        List<Point> shuffled = new ArrayList<>(points);
-        Collections.shuffle(shuffled, new Random());
-        
-        int k = Math.min(config.getK(), shuffled.size());
+        int k = Math.min(config.getK(), data.size());
 
-        for (int i = 0; i < k; i++) {
-            clusters.add(new Cluster(shuffled.get(i)));
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(pointAt(row)));
         }
     }
 
@@ -78,6 +132,7 @@ public class KMeansSequential {
 //            throw new IllegalArgumentException("Initial clusters must be non-null and match k=" + config.getK());
 //        }
         clusters.clear();
+        started = false;
         // Create deep copies to avoid reference issues
         for (Cluster original : initialClusters) {
             Cluster copy = new Cluster(new Point(original.getCentroid().getCoordinates()));
@@ -86,86 +141,65 @@ public class KMeansSequential {
     }
 
     
-    private void assignPointsToClusters() {
-        for (Point p : points) {
-            Cluster nearest = null;
-            double minDist = Double.MAX_VALUE;
-
-            for (Cluster c : clusters) {
-                double dist = DistanceUtils.distance(p, c.getCentroid());
-                if (dist < minDist) {
-                    minDist = dist;
-                    nearest = c;
+    // With delta set, only the rows whose label changed are recorded, as moves between clusters
+    private ClusterAccumulator assignPointsToClusters(AssignmentKernel kernel, boolean delta) {
+        int dim = data.getDimension();
+        int k = counts.length;
+        ClusterAccumulator partials = new ClusterAccumulator(k, dim);
+
+        double[] minDistances = new double[RowTiles.TILE_ROWS];
+        int[] previous = new int[RowTiles.TILE_ROWS];
+        long reassigned = 0;
+
+        RowTiles tiles = data.tiles(0, data.size());
+        while (tiles.next()) {
+            double[] coords = tiles.rows();
+            System.arraycopy(labels, tiles.first(), previous, 0, tiles.count());
+            kernel.nearestCentroids(coords, tiles.offset(), tiles.first(), tiles.count(),
+                    labels, tiles.first(), minDistances);
+
+            for (int i = tiles.first(), r = 0, offset = tiles.offset(); i < tiles.last(); i++, r++, offset += dim) {
+                if (labels[i] != previous[r]) {
+                    reassigned++;
                 }
-            }
-
-            if (nearest != null) {
-                nearest.addPoint(p);
-            }
-        }
-    }
-
-
-    private void handleEmptyClusters() {
-        // Find empty clusters
-        List<Cluster> emptyClusters = new ArrayList<>();
-        Cluster largestCluster = null;
-        int maxSize = 0;
-
-        for (Cluster c : clusters) {
-            if (c.getPoints().isEmpty()) {
-                emptyClusters.add(c);
-            } else {
-                // Track the largest cluster to steal a point from
-                if (c.getPoints().size() > maxSize) {
-                    maxSize = c.getPoints().size();
-                    largestCluster = c;
+                if (!delta) {
+                    partials.add(labels[i], coords, offset, minDistances[r]);
+                } else {
+                    if (labels[i] != previous[r]) {
+                        partials.move(previous[r], labels[i], coords, offset);
+                    }
+                    partials.addSSE(labels[i], minDistances[r]);
                 }
             }
         }
+        partials.addReassignments(reassigned);
+        return partials;
+    }
 
-        // Reinitialize empty clusters
-        for (Cluster emptyCluster : emptyClusters) {
-            if (largestCluster != null && !largestCluster.getPoints().isEmpty()) {
-                // Strategy 1: Move empty cluster to a random point from the largest cluster
-                List<Point> largestPoints = largestCluster.getPoints();
-                Point randomPoint = largestPoints.get(RandomUtils.nextInt(largestPoints.size()));
-                emptyCluster.setCentroid(new Point(randomPoint.getCoordinates()));
-            } else {
-                // Strategy 2: If no non-empty clusters exist, move to a random point from dataset
-                if (!points.isEmpty()) {
-                    Point randomPoint = points.get(RandomUtils.nextInt(points.size()));
-                    emptyCluster.setCentroid(new Point(randomPoint.getCoordinates()));
-                }
-            }
-        }
+    // Original Point object for a row when available, otherwise a copy materialized from the matrix
+    private Point pointAt(int row) {
+        return points != null ? points.get(row) : data.getPoint(row);
     }
 
-    private boolean recomputeCentroids() {
-        boolean converged = true;
 
-        for (Cluster c : clusters) {
-            Point oldCentroid = c.getCentroid();
-            c.recomputeCentroid();
-            double movement = DistanceUtils.distance(oldCentroid, c.getCentroid());
-            if (movement > config.getTolerance()) {
-                converged = false;
-            }
+    /**
+     * Exact SSE from the last assignment pass, carried over to the final centroids; no extra pass
+     */
+    public double computeSSE() {
+        if (labels == null) {
+            return 0.0;
         }
-
-        return converged;
+        return SSECalculator.total(computeClusterSSE());
     }
 
-    public double computeSSE() {
-        double sse = 0.0;
-        for (Cluster c : clusters) {
-            Point centroid = c.getCentroid();
-            for (Point p : c.getPoints()) {
-                double dist = DistanceUtils.distance(p, centroid);
-                sse += dist * dist;
-            }
+    public double[] computeClusterSSE() {
+        if (labels == null) {
+            return new double[clusters.size()];
+        }
+        if (clusterSSE == null) { // no pass ran
+            return SSECalculator.computeClusterSSE(data, labels, centroids);
         }
-        return sse;
+        return clusterSSE.clone();
     }
 
     
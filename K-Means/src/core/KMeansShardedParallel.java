@@ -0,0 +1,367 @@
+package core;
+
+import evaluation.SSECalculator;
+import model.Assignment;
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+import model.RowTiles;
+import util.SamplingUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel Lloyd engine with long-lived workers and static data partitioning, picked by
+ * {@link KMeansMethod#SHARDED}. There is one worker per thread of the config's pool, so a dedicated
+ * pool of p threads gives p workers, but never shards smaller than one tile. Worker w owns the
+ * contiguous shard [w*n/W, (w+1)*n/W) for the whole run, so the same rows stay in the same core's
+ * cache and no tasks are created or split after start-up. Every iteration has two phases separated
+ * by a {@link CyclicBarrier}: all workers assign their shard into their own {@link ClusterAccumulator},
+ * then the barrier action (run by the last worker to arrive) reduces the accumulators, reseeds
+ * empty clusters, moves the centroids and decides whether to stop.
+ *
+ * The calling thread acts as worker 0; the others are platform threads, started by the first
+ * {@link #advance} (or {@link #run()}) of a run and kept for the whole run: between calls they park
+ * at a second barrier, the gate, which the next call opens, so a run driven a few iterations at a
+ * time pays the thread start-up once. They exit once the run finishes, or after
+ * {@value #IDLE_TIMEOUT_MILLIS} ms parked at the gate when a run is abandoned midway; the next call
+ * then starts a fresh crew. The pool only sets their number and runs no tasks. Produces the same
+ * result as {@link KMeansParallel}.
+ */
+public class KMeansShardedParallel implements KMeansEngine {
+
+    private static final long IDLE_TIMEOUT_MILLIS = 10_000; // parked workers exit after this long
+
+    private final KMeansConfig config;
+    private final List<Point> points;   // original point objects, null when built from a matrix
+    private final DataSet data;
+    private final List<Cluster> clusters;
+    private final int workers;
+    private double[] centroids;         // k x d working copy of the centroids during a run
+    private int[] labels;               // cluster index of every row
+    private int[] counts;               // rows per cluster
+    private double[] clusterSSE;        // per-cluster SSE against the final centroids
+    private int iterationsCompleted = 0;
+
+    // Run state shared with the workers; published to them by the barrier, kept between calls to advance()
+    private boolean started;
+    private AssignmentKernel kernel;
+    private ClusterAccumulator[] partials;
+    private ClusterAccumulator total;
+    private RunningSums running;        // per-cluster sums kept across passes
+    private boolean delta;              // the current pass records only the rows that changed cluster
+    private boolean done;               // the workers stop after this pass
+    private boolean converged;
+    private int iteration;
+    private int stop;                   // iteration the current advance() stops at
+    private AtomicReference<Throwable> failure;
+    private SplittableRandom random;    // reseeds empty clusters in the barrier action
+    private Crew crew;                  // worker threads of the current run, null when none are running
+
+    public KMeansShardedParallel(KMeansConfig config, List<Point> points) {
+        this(config, points, PointMatrix.fromPoints(points));
+    }
+
+    public KMeansShardedParallel(KMeansConfig config, DataSet data) {
+        this(config, null, data);
+    }
+
+    private KMeansShardedParallel(KMeansConfig config, List<Point> points, DataSet data) {
+        this.config = config;
+        this.points = points;
+        this.data = data;
+        this.clusters = new ArrayList<>();
+        // one worker per pool thread, but never shards smaller than one tile
+        this.workers = Math.max(1, Math.min(config.getPool().getParallelism(), data.size() / RowTiles.TILE_ROWS));
+    }
+
+    public void run() {
+        started = false;
+        advance(config.getMaxIterations());
+        if (config.isVerbose()) {
+            System.out.println("Sharded Parallel K-Means finished in " + iteration + " iterations with " +
+                    workers + " workers");
+        }
+    }
+
+    /**
+     * Opens the gate for the workers' passes and returns once they are parked again; the workers,
+     * shard assignment, labels and running sums carry over to the next call
+     */
+    public boolean advance(int maxIterations) {
+        if (!started) {
+            start();
+        }
+        stop = (int) Math.min(config.getMaxIterations(), (long) iteration + maxIterations);
+
+        if (!converged && iteration < stop) {
+            openGate();
+            work(0, crew.barrier);
+            Throwable failed = failure.get(); // read before retiring: opening the gate resets it
+            if (failed != null) {
+                started = false; // the run state is unusable
+                retireCrew();
+                throw new IllegalStateException("K-Means worker failed: " + failed.getMessage(), failed);
+            }
+        }
+
+        KMeansSupport.publish(clusters, centroids, data.getDimension(), new Assignment(labels, counts, this::pointAt));
+
+        iterationsCompleted = iteration;
+        boolean finished = converged || iteration >= config.getMaxIterations();
+        if (finished) {
+            retireCrew();
+        }
+        return finished;
+    }
+
+    // Release the parked workers into this call's passes, starting a crew if none is parked
+    private void openGate() {
+        while (true) {
+            if (crew == null || crew.gate.isBroken()) {
+                crew = new Crew();
+            }
+            try {
+                crew.gate.await();
+                return;
+            } catch (BrokenBarrierException e) {
+                crew = null; // a parked worker timed out as this call arrived; the crew is gone
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                crew = null; // the interrupt broke the gate, so the workers exit
+                throw new IllegalStateException("Interrupted while waiting for K-Means workers", e);
+            }
+        }
+    }
+
+    // Let the parked workers exit
+    private void retireCrew() {
+        if (crew == null) {
+            return;
+        }
+        Crew retiring = crew;
+        crew = null;
+        retiring.shutdown = true;
+        try {
+            retiring.gate.await();
+        } catch (BrokenBarrierException e) {
+            // the workers already left
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Worker threads 1..W-1 of a run with their two barriers: the gate, where they park between
+     * calls to advance() and whose action resets the per-call flags while every worker is parked,
+     * and the per-pass barrier, whose action is reduceAndUpdate
+     */
+    private final class Crew {
+        final CyclicBarrier gate;
+        final CyclicBarrier barrier;
+        volatile boolean shutdown;      // set before the last opening of the gate
+
+        Crew() {
+            gate = new CyclicBarrier(workers, () -> {
+                done = false;
+                failure = new AtomicReference<>();
+            });
+            barrier = new CyclicBarrier(workers, KMeansShardedParallel.this::reduceAndUpdate);
+            for (int w = 1; w < workers; w++) {
+                int worker = w;
+                Thread thread = new Thread(() -> park(worker), "kmeans-worker-" + w);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        // Worker thread body: wait at the gate, run one call's passes, repeat until retired
+        private void park(int worker) {
+            try {
+                while (true) {
+                    gate.await(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (shutdown) {
+                        return;
+                    }
+                    work(worker, barrier);
+                }
+            } catch (TimeoutException | BrokenBarrierException e) {
+                // idle too long, or another worker's timeout broke the gate: the next call starts a new crew
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Fresh run state from the initial clusters, or from random rows when none were set
+    private void start() {
+        random = config.newRandom();
+
+        // Only initialize if clusters are empty (allows for custom initialization)
+        if (clusters.isEmpty()) {
+            initializeClusters(random);
+        }
+
+        int dim = data.getDimension();
+        int k = clusters.size();
+        centroids = KMeansSupport.centroidArray(clusters, dim);
+        labels = new int[data.size()];
+        counts = new int[k];
+        clusterSSE = null;
+        kernel = config.getAssignmentStrategy().createKernel(data, k);
+        kernel.setCentroids(centroids);
+        partials = new ClusterAccumulator[workers];
+        for (int w = 0; w < workers; w++) {
+            partials[w] = new ClusterAccumulator(k, dim);
+        }
+        total = new ClusterAccumulator(k, dim);
+        running = new RunningSums(config);
+        delta = running.nextPassIsDelta();
+        converged = false;
+        iteration = 0;
+        started = true;
+    }
+
+    // Worker loop: assign the own shard, then wait for the reduce/update phase
+    private void work(int worker, CyclicBarrier barrier) {
+        int n = data.size();
+        int start = (int) ((long) worker * n / workers);
+        int end = (int) ((long) (worker + 1) * n / workers);
+        int dim = data.getDimension();
+        double[] minDistances = new double[RowTiles.TILE_ROWS];
+        int[] previous = new int[RowTiles.TILE_ROWS];
+        ClusterAccumulator local = partials[worker];
+
+        try {
+            while (!done) {
+                // Phase 1: assign this shard, accumulating sums, counts and SSE locally
+                try {
+                    local.reset();
+                    long reassigned = 0;
+                    RowTiles tiles = data.tiles(start, end);
+                    while (tiles.next()) {
+                        double[] coords = tiles.rows();
+                        System.arraycopy(labels, tiles.first(), previous, 0, tiles.count());
+                        kernel.nearestCentroids(coords, tiles.offset(), tiles.first(), tiles.count(),
+                                labels, tiles.first(), minDistances);
+                        for (int i = tiles.first(), r = 0, offset = tiles.offset(); i < tiles.last(); i++, r++, offset += dim) {
+                            if (labels[i] != previous[r]) {
+                                reassigned++;
+                            }
+                            if (!delta) {
+                                local.add(labels[i], coords, offset, minDistances[r]);
+                            } else {
+                                if (labels[i] != previous[r]) {
+                                    local.move(previous[r], labels[i], coords, offset);
+                                }
+                                local.addSSE(labels[i], minDistances[r]);
+                            }
+                        }
+                    }
+                    local.addReassignments(reassigned);
+                } catch (RuntimeException | Error e) {
+                    // still arrive at the barrier, so the others are not left waiting; the action stops the run
+                    failure.compareAndSet(null, e);
+                }
+
+                // Phase 2: the last worker to arrive runs reduceAndUpdate
+                barrier.await();
+            }
+        } catch (BrokenBarrierException e) {
+            // the barrier action failed on another worker, which recorded the exception
+        } catch (InterruptedException e) {
+            failure.compareAndSet(null, e);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e); // thrown by the barrier action on this worker
+        }
+    }
+
+    // Barrier action: runs on one thread while every worker is parked at the barrier
+    private void reduceAndUpdate() {
+        if (failure.get() != null) {
+            done = true;
+            return;
+        }
+        ClusterAccumulator pass = delta ? total : new ClusterAccumulator(counts.length, data.getDimension());
+        pass.reset();
+        for (ClusterAccumulator partial : partials) {
+            pass.merge(partial);
+        }
+        running.fold(pass, delta);
+        counts = running.getCounts().clone();
+        clusterSSE = pass.getClusterSSE(); // every pass scores all rows, delta or not
+
+        KMeansSupport.handleEmptyClusters(data, labels, counts, centroids, random);
+        converged = KMeansSupport.applySums(running.getSums(), counts, centroids,
+                data.getDimension(), config.getTolerance(), clusterSSE)
+                || KMeansSupport.labelsStable(config, iteration, pass.getReassignments(), counts);
+
+        iteration++;
+        done = converged || iteration >= stop;
+        if (!converged && iteration < config.getMaxIterations()) { // ready for this or the next advance()
+            kernel.setCentroids(centroids);
+            delta = running.nextPassIsDelta();
+        }
+    }
+
+    public int getIterationsCompleted() {
+        return iterationsCompleted;
+    }
+
+    private void initializeClusters(SplittableRandom random) {
+        clusters.clear();
+        int k = Math.min(config.getK(), data.size());
+
+        for (int row : SamplingUtils.randomDistinctRows(data.size(), k, random)) {
+            clusters.add(new Cluster(pointAt(row)));
+        }
+    }
+
+    // Original Point object for a row when available, otherwise a copy materialized from the matrix
+    private Point pointAt(int row) {
+        return points != null ? points.get(row) : data.getPoint(row);
+    }
+
+    public void setInitialClusters(List<Cluster> initialClusters) {
+        clusters.clear();
+        started = false;
+        // Create deep copies to avoid reference issues
+        for (Cluster original : initialClusters) {
+            Cluster copy = new Cluster(new Point(original.getCentroid().getCoordinates()));
+            clusters.add(copy);
+        }
+    }
+
+    /**
+     * Exact SSE from the last assignment pass, carried over to the final centroids; no extra pass
+     */
+    public double computeSSE() {
+        if (labels == null) {
+            return 0.0;
+        }
+        return SSECalculator.total(computeClusterSSE());
+    }
+
+    public double[] computeClusterSSE() {
+        if (labels == null) {
+            return new double[clusters.size()];
+        }
+        if (clusterSSE == null) { // no pass ran
+            return SSECalculator.computeClusterSSE(data, labels, centroids);
+        }
+        return clusterSSE.clone();
+    }
+
+    public List<Cluster> getClusters() {
+        return clusters;
+    }
+}
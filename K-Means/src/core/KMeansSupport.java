@@ -0,0 +1,204 @@
+package core;
+
+import model.Assignment;
+import model.Cluster;
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+import util.DistanceUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Helpers shared by the engines once the assignment is held as labels.
+ * The canonical state of a run is an int[] label per row, an int[] count per cluster and a
+ * flat k x d row-major centroid array; Cluster objects are only updated when a run publishes.
+ */
+final class KMeansSupport {
+
+    private KMeansSupport() {}
+
+    /**
+     * Sequential k-means++ over the first n rows of a flat row-major array: the first row uniformly,
+     * then each next one with probability proportional to its squared distance to the nearest row
+     * chosen so far. Meant for small inputs such as a warm-up buffer; full datasets are seeded by the
+     * fork/join k-means++ in the bonus package.
+     * @return k row indexes, fewer than k only if n < k
+     */
+    static int[] kMeansPlusPlusRows(double[] rows, int n, int dim, int k, RandomGenerator random) {
+        k = Math.min(k, n);
+        int[] chosen = new int[k];
+        double[] minDistancesSquared = new double[n];
+        Arrays.fill(minDistancesSquared, Double.POSITIVE_INFINITY);
+
+        chosen[0] = random.nextInt(n);
+        for (int c = 1; c < k; c++) {
+            // Only the newest row can lower a row's distance
+            int newest = chosen[c - 1] * dim;
+            double total = 0.0;
+            for (int i = 0; i < n; i++) {
+                double d = DistanceUtils.squaredDistance(rows, i * dim, rows, newest, dim);
+                if (d < minDistancesSquared[i]) {
+                    minDistancesSquared[i] = d;
+                }
+                total += minDistancesSquared[i];
+            }
+            if (!(total > 0)) {
+                chosen[c] = random.nextInt(n); // every row coincides with a chosen one
+                continue;
+            }
+            double randomValue = random.nextDouble() * total;
+            double cumulative = 0.0;
+            int next = -1;
+            for (int i = 0; i < n; i++) {
+                if (minDistancesSquared[i] > 0) {
+                    cumulative += minDistancesSquared[i];
+                    next = i; // last weighted row, should rounding leave cumulative short of randomValue
+                    if (cumulative > randomValue) {
+                        break;
+                    }
+                }
+            }
+            chosen[c] = next;
+        }
+        return chosen;
+    }
+
+    /**
+     * Flat k x d copy of the cluster centroids, checked once against the data's dimension
+     * so the distance kernels can skip per-call checks for the rest of the run
+     */
+    static double[] centroidArray(List<Cluster> clusters, int dim) {
+        PointMatrix matrix = PointMatrix.fromCentroids(clusters);
+        DistanceUtils.checkDimensions(dim, matrix.getDimension());
+        return matrix.getData();
+    }
+
+    /**
+     * Replace each non-empty centroid by sums / count
+     * @return true if no centroid moved more than the tolerance
+     */
+    static boolean applySums(double[] sums, int[] counts, double[] centroids, int dim, double tolerance) {
+        return applySums(sums, counts, centroids, dim, tolerance, null);
+    }
+
+    /**
+     * Same as {@link #applySums(double[], int[], double[], int, double)}, and carries the pass's
+     * per-cluster SSE over to the new centroids. A cluster's SSE about its mean is its SSE about any
+     * other point c minus count * ||c - mean||^2, so the assignment pass's SSE against the old
+     * centroids gives the exact SSE against the new ones in O(k*d), with no pass over the rows.
+     * @param clusterSSE per-cluster SSE against the old centroids, updated in place; may be null
+     */
+    static boolean applySums(double[] sums, int[] counts, double[] centroids, int dim, double tolerance,
+                             double[] clusterSSE) {
+        boolean converged = true;
+        double[] updated = new double[dim];
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] == 0) {
+                continue; // keep the reseeded centroid
+            }
+            int base = c * dim;
+            for (int j = 0; j < dim; j++) {
+                updated[j] = sums[base + j] / counts[c];
+            }
+            double movedSquared = DistanceUtils.squaredDistance(centroids, base, updated, 0, dim);
+            if (Math.sqrt(movedSquared) > tolerance) {
+                converged = false;
+            }
+            if (clusterSSE != null) {
+                clusterSSE[c] = Math.max(0.0, clusterSSE[c] - counts[c] * movedSquared);
+            }
+            System.arraycopy(updated, 0, centroids, base, dim);
+        }
+        return converged;
+    }
+
+    /**
+     * Zero-reassignment stopping rule: after the first pass, no row changed cluster and no cluster
+     * is empty (an empty cluster's centroid was just reseeded), so the next pass would repeat this one
+     */
+    static boolean labelsStable(KMeansConfig config, int iteration, long reassignments, int[] counts) {
+        if (!config.isStopOnStableLabels() || iteration == 0 || reassignments != 0) {
+            return false;
+        }
+        for (int count : counts) {
+            if (count == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move each empty cluster's centroid onto a random row of the largest cluster,
+     * or onto a random row of the dataset if every cluster is empty
+     */
+    static void handleEmptyClusters(DataSet data, int[] labels, int[] counts, double[] centroids,
+                                    RandomGenerator random) {
+        boolean[] empty = new boolean[counts.length];
+        for (int c = 0; c < counts.length; c++) {
+            empty[c] = counts[c] == 0;
+        }
+        reseedClusters(data, labels, counts, centroids, empty, random);
+    }
+
+    /**
+     * Same as {@link #handleEmptyClusters}, for the centroids flagged in reseed, e.g. mini-batch
+     * centroids that have never won a row
+     * @return number of centroids moved
+     */
+    static int reseedClusters(DataSet data, int[] labels, int[] counts, double[] centroids, boolean[] reseed,
+                              RandomGenerator random) {
+        int dim = data.getDimension();
+        int largest = -1;
+        int maxSize = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > maxSize) {
+                maxSize = counts[c];
+                largest = c;
+            }
+        }
+
+        int moved = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (!reseed[c]) {
+                continue;
+            }
+            int row;
+            if (largest >= 0) {
+                row = randomMember(labels, largest, random.nextInt(maxSize));
+            } else if (data.size() > 0) {
+                row = random.nextInt(data.size());
+            } else {
+                continue;
+            }
+            data.copyRow(row, centroids, c * dim);
+            moved++;
+        }
+        return moved;
+    }
+
+    // Row index of the nth row (0-based) labelled with the given cluster
+    private static int randomMember(int[] labels, int cluster, int nth) {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] == cluster && nth-- == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("cluster " + cluster + " has fewer members than its count");
+    }
+
+    /**
+     * Copy the flat centroids into the Cluster objects and bind their membership to the labels
+     */
+    static void publish(List<Cluster> clusters, double[] centroids, int dim, Assignment assignment) {
+        for (int c = 0; c < clusters.size(); c++) {
+            double[] coords = new double[dim];
+            System.arraycopy(centroids, c * dim, coords, 0, dim);
+            clusters.get(c).setCentroid(new Point(coords));
+        }
+        assignment.bind(clusters);
+    }
+}
@@ -0,0 +1,29 @@
+package core;
+
+import model.DataSet;
+import model.Point;
+import model.PointMatrix;
+
+import java.util.List;
+
+/**
+ * Lloyd's algorithm with Yinyang's grouped centroid bounds (see {@link YinyangBounds}).
+ * Produces the same assignments as {@link KMeansParallel} with one lower bound per group of about ten
+ * centroids instead of one per centroid, which keeps the bounds affordable when k reaches the
+ * hundreds.
+ */
+public class KMeansYinyangParallel extends KMeansBounded {
+
+    public KMeansYinyangParallel(KMeansConfig config, List<Point> points) {
+        super(config, points, PointMatrix.fromPoints(points), true, "Yinyang");
+    }
+
+    public KMeansYinyangParallel(KMeansConfig config, DataSet data) {
+        super(config, null, data, true, "Yinyang");
+    }
+
+    @Override
+    AssignmentBounds createBounds(int n, int k, int dimension, int[] labels) {
+        return new YinyangBounds(n, k, dimension, labels);
+    }
+}
@@ -0,0 +1,330 @@
+package core;
+
+import model.DataSet;
+import util.DistanceUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Kd-tree over a dataset for the filtering algorithm (Kanungo et al., TPAMI 2002).
+ * The rows are copied once into a private array that is partitioned in place while the tree is
+ * built, so every node covers a contiguous range of it; {@link #getRowIds()} maps positions back
+ * to dataset rows. Each node caches its bounding box, the sum of its rows and the sum of their
+ * squared norms, so a subtree whose cell can only be closest to one centroid is credited to it,
+ * SSE included, without touching a single row.
+ *
+ * The two halves of a split are built as fork/join subtasks, and the filtering pass forks the
+ * same way; both are read-only on the tree once it is built.
+ */
+final class KdTree {
+
+    private static final int LEAF_SIZE = 32;         // rows below which a node is not split
+    private static final int PARALLEL_ROWS = 16384;  // subtrees smaller than this are handled by one task
+
+    private final int dimension;
+    private final double[] rows;        // copy of the data, reordered so every node is a contiguous range
+    private final int[] rowIds;         // dataset row of each position in rows
+    private final Node root;
+
+    static final class Node {
+        final int start;
+        final int end;
+        final double[] min;             // bounding box of the node's rows
+        final double[] max;
+        final double[] sum;             // coordinate sums of the node's rows
+        final double sumSquares;        // sum of the rows' squared norms
+        Node left;
+        Node right;
+
+        Node(int start, int end, double[] min, double[] max, double[] sum, double sumSquares) {
+            this.start = start;
+            this.end = end;
+            this.min = min;
+            this.max = max;
+            this.sum = sum;
+            this.sumSquares = sumSquares;
+        }
+
+        boolean isLeaf() {
+            return left == null;
+        }
+
+        int count() {
+            return end - start;
+        }
+    }
+
+    KdTree(DataSet data, ForkJoinPool pool) {
+        int n = data.size();
+        this.dimension = data.getDimension();
+        this.rows = new double[Math.multiplyExact(n, dimension)];
+        data.copyRows(0, n, rows, 0);
+        this.rowIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            rowIds[i] = i;
+        }
+        this.root = n == 0 ? null : pool.invoke(new BuildTask(0, n));
+    }
+
+    int[] getRowIds() {
+        return rowIds;
+    }
+
+    /**
+     * One filtering pass: per-cluster sums and counts of the nearest-centroid assignment.
+     * When labels is non-null it also receives the nearest centroid of every dataset row,
+     * which costs O(n) on top of the pass.
+     */
+    ClusterAccumulator assign(double[] centroids, int k, int[] labels, ForkJoinPool pool) {
+        if (root == null) {
+            return new ClusterAccumulator(k, dimension);
+        }
+        int[] candidates = new int[k];
+        for (int c = 0; c < k; c++) {
+            candidates[c] = c;
+        }
+        return pool.invoke(new FilterTask(root, candidates, k, centroids, labels));
+    }
+
+    // Split at the midpoint of the widest side of the bounding box; children build in parallel
+    private final class BuildTask extends RecursiveTask<Node> {
+        private final int start;
+        private final int end;
+
+        BuildTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Node compute() {
+            double[] min = new double[dimension];
+            double[] max = new double[dimension];
+            for (int j = 0; j < dimension; j++) {
+                min[j] = Double.POSITIVE_INFINITY;
+                max[j] = Double.NEGATIVE_INFINITY;
+            }
+            for (int i = start, offset = start * dimension; i < end; i++, offset += dimension) {
+                for (int j = 0; j < dimension; j++) {
+                    double v = rows[offset + j];
+                    if (v < min[j]) min[j] = v;
+                    if (v > max[j]) max[j] = v;
+                }
+            }
+
+            int axis = 0;
+            for (int j = 1; j < dimension; j++) {
+                if (max[j] - min[j] > max[axis] - min[axis]) {
+                    axis = j;
+                }
+            }
+
+            // Leaf: few rows, or all rows identical
+            if (end - start <= LEAF_SIZE || max[axis] == min[axis]) {
+                double[] sum = new double[dimension];
+                double sumSquares = 0;
+                for (int offset = start * dimension; offset < end * dimension; offset += dimension) {
+                    for (int j = 0; j < dimension; j++) {
+                        double v = rows[offset + j];
+                        sum[j] += v;
+                        sumSquares += v * v;
+                    }
+                }
+                return new Node(start, end, min, max, sum, sumSquares);
+            }
+
+            // min < split <= max on the axis, so both sides are non-empty
+            double split = 0.5 * (min[axis] + max[axis]);
+            if (split <= min[axis]) {
+                split = max[axis]; // adjacent doubles: the midpoint rounded down onto min
+            }
+            int mid = partition(axis, split);
+
+            BuildTask leftTask = new BuildTask(start, mid);
+            BuildTask rightTask = new BuildTask(mid, end);
+            Node left;
+            Node right;
+            if (end - start > PARALLEL_ROWS) {
+                leftTask.fork();
+                right = rightTask.compute();
+                left = leftTask.join();
+            } else {
+                left = leftTask.compute();
+                right = rightTask.compute();
+            }
+
+            double[] sum = new double[dimension];
+            for (int j = 0; j < dimension; j++) {
+                sum[j] = left.sum[j] + right.sum[j];
+            }
+            Node node = new Node(start, end, min, max, sum, left.sumSquares + right.sumSquares);
+            node.left = left;
+            node.right = right;
+            return node;
+        }
+
+        // Two-pointer partition of [start, end): rows below split first; returns the first row of the upper part
+        private int partition(int axis, double split) {
+            int i = start;
+            int j = end - 1;
+            while (i <= j) {
+                if (rows[i * dimension + axis] < split) {
+                    i++;
+                } else {
+                    swap(i, j);
+                    j--;
+                }
+            }
+            return i;
+        }
+
+        private void swap(int a, int b) {
+            int aOffset = a * dimension;
+            int bOffset = b * dimension;
+            for (int j = 0; j < dimension; j++) {
+                double tmp = rows[aOffset + j];
+                rows[aOffset + j] = rows[bOffset + j];
+                rows[bOffset + j] = tmp;
+            }
+            int id = rowIds[a];
+            rowIds[a] = rowIds[b];
+            rowIds[b] = id;
+        }
+    }
+
+    /**
+     * Kanungo's filter: keep only the candidates that can be nearest to some point of the node's
+     * cell; a node left with one candidate is credited to it as a whole from its cached sum
+     */
+    private final class FilterTask extends RecursiveTask<ClusterAccumulator> {
+        private final Node node;
+        private final int[] candidates;
+        private final int k;
+        private final double[] centroids;
+        private final int[] labels;
+
+        FilterTask(Node node, int[] candidates, int k, double[] centroids, int[] labels) {
+            this.node = node;
+            this.candidates = candidates;
+            this.k = k;
+            this.centroids = centroids;
+            this.labels = labels;
+        }
+
+        @Override
+        protected ClusterAccumulator compute() {
+            ClusterAccumulator local = new ClusterAccumulator(k, dimension);
+            filter(node, candidates, local);
+            return local;
+        }
+
+        private void filter(Node node, int[] candidates, ClusterAccumulator local) {
+            if (candidates.length == 1) {
+                credit(node, candidates[0], local);
+                return;
+            }
+            if (node.isLeaf()) {
+                scanLeaf(node, candidates, local);
+                return;
+            }
+
+            int[] kept = prune(node, candidates);
+            if (kept.length == 1) {
+                credit(node, kept[0], local);
+                return;
+            }
+
+            if (node.count() > PARALLEL_ROWS) {
+                FilterTask leftTask = new FilterTask(node.left, kept, k, centroids, labels);
+                leftTask.fork();
+                filter(node.right, kept, local);
+                local.merge(leftTask.join());
+            } else {
+                filter(node.left, kept, local);
+                filter(node.right, kept, local);
+            }
+        }
+
+        // Drop every candidate that is farther than the one closest to the cell's midpoint from all of the cell
+        private int[] prune(Node node, int[] candidates) {
+            double[] midpoint = new double[dimension];
+            for (int j = 0; j < dimension; j++) {
+                midpoint[j] = 0.5 * (node.min[j] + node.max[j]);
+            }
+            int best = candidates[0];
+            double bestDistance = Double.MAX_VALUE;
+            for (int c : candidates) {
+                double d = DistanceUtils.squaredDistance(midpoint, 0, centroids, c * dimension, dimension);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = c;
+                }
+            }
+
+            int[] kept = new int[candidates.length];
+            int size = 0;
+            kept[size++] = best;
+            for (int c : candidates) {
+                if (c != best && !isFarther(c, best, node)) {
+                    kept[size++] = c;
+                }
+            }
+            return size == kept.length ? kept : Arrays.copyOf(kept, size);
+        }
+
+        // True if centroid z is no closer than best to every point of the node's box
+        private boolean isFarther(int z, int best, Node node) {
+            int zOffset = z * dimension;
+            int bOffset = best * dimension;
+            double zDistance = 0;
+            double bDistance = 0;
+            for (int j = 0; j < dimension; j++) {
+                // box vertex extreme in the direction z - best
+                double v = centroids[zOffset + j] > centroids[bOffset + j] ? node.max[j] : node.min[j];
+                double dz = v - centroids[zOffset + j];
+                double db = v - centroids[bOffset + j];
+                zDistance += dz * dz;
+                bDistance += db * db;
+            }
+            return zDistance >= bDistance;
+        }
+
+        // sum ||x - c||^2 = sum ||x||^2 - 2 c.sum x + m ||c||^2
+        private void credit(Node node, int cluster, ClusterAccumulator local) {
+            int base = cluster * dimension;
+            double dot = 0;
+            double norm = 0;
+            for (int j = 0; j < dimension; j++) {
+                dot += centroids[base + j] * node.sum[j];
+                norm += centroids[base + j] * centroids[base + j];
+            }
+            double sse = Math.max(0.0, node.sumSquares - 2 * dot + node.count() * norm);
+            local.addAll(cluster, node.sum, node.count(), sse);
+            if (labels != null) {
+                for (int i = node.start; i < node.end; i++) {
+                    labels[rowIds[i]] = cluster;
+                }
+            }
+        }
+
+        private void scanLeaf(Node node, int[] candidates, ClusterAccumulator local) {
+            for (int i = node.start, offset = node.start * dimension; i < node.end; i++, offset += dimension) {
+                int nearest = candidates[0];
+                double best = Double.MAX_VALUE;
+                for (int c : candidates) {
+                    double d = DistanceUtils.squaredDistance(rows, offset, centroids, c * dimension, dimension);
+                    if (d < best || (d == best && c < nearest)) {
+                        best = d;
+                        nearest = c;
+                    }
+                }
+                local.add(nearest, rows, offset, best);
+                if (labels != null) {
+                    labels[rowIds[i]] = nearest;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package core;
+
+/**
+ * How {@link KMeansMiniBatch} draws the rows of each mini-batch
+ */
+public enum MiniBatchSampling {
+    /** Independent uniform draws with replacement; no per-row state */
+    UNIFORM,
+
+    /** Walk a random permutation of the rows (reshuffled every epoch), so every row is seen once per epoch; needs an int per row */
+    SHUFFLED
+}
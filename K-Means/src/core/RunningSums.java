@@ -0,0 +1,47 @@
+package core;
+
+/**
+ * Per-cluster coordinate sums and counts kept across the passes of one run. After a full pass,
+ * later passes only report the rows that changed cluster ({@link ClusterAccumulator#move}), so
+ * folding them in costs O(changed rows * d) instead of O(n * d). Every {@value #REFRESH_INTERVAL}
+ * passes a full pass rebuilds the totals, so rounding from repeated add/subtract cannot build up.
+ */
+final class RunningSums {
+
+    static final int REFRESH_INTERVAL = 32;
+
+    private final boolean incremental;
+    private ClusterAccumulator totals;  // null before the first pass
+    private int passes;
+
+    RunningSums(KMeansConfig config) {
+        this.incremental = config.isIncrementalSums();
+    }
+
+    /**
+     * True if the next pass should record only the rows that changed cluster
+     */
+    boolean nextPassIsDelta() {
+        return incremental && totals != null && passes % REFRESH_INTERVAL != 0;
+    }
+
+    /**
+     * Fold a pass in: a delta pass is added to the totals, a full pass replaces them
+     */
+    void fold(ClusterAccumulator pass, boolean delta) {
+        if (delta) {
+            totals.merge(pass);
+        } else {
+            totals = pass;
+        }
+        passes++;
+    }
+
+    double[] getSums() {
+        return totals.getSums();
+    }
+
+    int[] getCounts() {
+        return totals.getCounts();
+    }
+}
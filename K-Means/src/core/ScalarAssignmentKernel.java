@@ -0,0 +1,40 @@
+package core;
+
+import util.DistanceUtils;
+
+/**
+ * Default kernel: the dimension-specialized scalar loops of {@link DistanceUtils#nearestCentroids}
+ */
+public class ScalarAssignmentKernel implements AssignmentKernel {
+
+    private final int k;
+    private final int dimension;
+    private double[] centroids;
+
+    public ScalarAssignmentKernel(int k, int dimension) {
+        this.k = k;
+        this.dimension = dimension;
+    }
+
+    @Override
+    public void setCentroids(double[] centroids) {
+        this.centroids = centroids;
+    }
+
+    @Override
+    public int getNumCentroids() {
+        return k;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public void nearestCentroids(double[] rows, int rowOffset, int firstRow, int count,
+                                 int[] labels, int labelOffset, double[] minDistances) {
+        DistanceUtils.nearestCentroids(rows, rowOffset, count, centroids, k, dimension,
+                labels, labelOffset, minDistances);
+    }
+}
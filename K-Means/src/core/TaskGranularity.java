@@ -0,0 +1,61 @@
+package core;
+
+/**
+ * How the fork/join engines pick the leaf size of their assignment tasks (rows a task handles
+ * without splitting further). Leaves must be big enough to amortize task creation and stealing,
+ * yet numerous enough that every worker stays busy until the end of the pass.
+ */
+public enum TaskGranularity {
+    /** {@link KMeansConfig#getLeafSize()} rows per leaf, whatever the data */
+    FIXED,
+
+    /** Derived from n, k, d and the pool's parallelism before the run starts */
+    ADAPTIVE,
+
+    /**
+     * ADAPTIVE at first, then re-derived from the measured time per row of the second iteration
+     * (the first one also pays for JIT compilation)
+     */
+    MEASURED;
+
+    /** Smallest leaf worth a task of its own */
+    static final int MIN_LEAF_ROWS = 128;
+    /** Aim for about this many coordinate operations (k*d per row) per leaf */
+    private static final long TARGET_LEAF_WORK = 1L << 17;
+    /** Aim for about this much time per leaf when measured */
+    private static final long TARGET_LEAF_NANOS = 50_000;
+    /** Leaves per worker kept available for load balancing */
+    private static final int LEAVES_PER_WORKER = 8;
+
+    /**
+     * Leaf size for the first iteration of a run
+     */
+    public int initialLeafSize(int n, int k, int dimension, int parallelism, int fixedLeafSize) {
+        if (this == FIXED) {
+            return fixedLeafSize;
+        }
+        long work = Math.max(1L, (long) k * dimension);
+        long rowsForWork = (TARGET_LEAF_WORK + work - 1) / work;
+        return clamp(rowsForWork, n, parallelism);
+    }
+
+    /**
+     * Leaf size for the remaining iterations after a measured one took iterationNanos of wall time;
+     * returns currentLeafSize unchanged for the static policies
+     */
+    public int calibratedLeafSize(long iterationNanos, int n, int parallelism, int currentLeafSize) {
+        if (this != MEASURED || n == 0 || iterationNanos <= 0) {
+            return currentLeafSize;
+        }
+        // wall time times workers approximates the total CPU time spent on the rows
+        double nanosPerRow = (double) iterationNanos * parallelism / n;
+        long rows = (long) Math.ceil(TARGET_LEAF_NANOS / Math.max(nanosPerRow, 1e-3));
+        return clamp(rows, n, parallelism);
+    }
+
+    // Never below MIN_LEAF_ROWS, and never so large that workers run out of leaves to steal
+    private static int clamp(long rows, int n, int parallelism) {
+        long rowsForBalance = Math.max(1L, (long) n / ((long) LEAVES_PER_WORKER * Math.max(1, parallelism)));
+        return (int) Math.max(MIN_LEAF_ROWS, Math.min(rows, rowsForBalance));
+    }
+}
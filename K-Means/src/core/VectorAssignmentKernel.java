@@ -0,0 +1,132 @@
+package core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import model.RowTiles;
+
+/**
+ * SIMD kernel on the incubating Vector API: distances from many points to one centroid at a time,
+ * one point per vector lane. Each call transposes its rows into a per-thread column-major
+ * scratch tile, then for every centroid evaluates (x - c)^2 for a full vector of points per
+ * dimension and keeps a running min/argmin per lane with masked blends. Distances are rounded
+ * exactly as in {@link ScalarAssignmentKernel}, so both kernels return the same labels, ties included.
+ *
+ * Needs {@code --add-modules jdk.incubator.vector}; {@link AssignmentStrategy} falls back to the
+ * scalar kernel when the module is not in the boot layer, so this class is never loaded then
+ * (even its static initializer would fail without the module).
+ */
+public class VectorAssignmentKernel implements AssignmentKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private final int k;
+    private final int dimension;
+    private final int paddedRows;   // TILE_ROWS rounded up to a whole number of vectors
+    private final boolean pairwise; // sum even and odd dimensions apart, like DistanceUtils.squaredDistance14
+    private final ThreadLocal<Scratch> scratch;
+    private double[] centroids;
+
+    public VectorAssignmentKernel(int k, int dimension) {
+        this.k = k;
+        this.dimension = dimension;
+        this.paddedRows = (RowTiles.TILE_ROWS + LANES - 1) / LANES * LANES;
+        this.pairwise = dimension == 14;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(dimension, paddedRows));
+    }
+
+    @Override
+    public void setCentroids(double[] centroids) {
+        this.centroids = centroids;
+    }
+
+    @Override
+    public int getNumCentroids() {
+        return k;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public void nearestCentroids(double[] rows, int rowOffset, int firstRow, int count,
+                                 int[] labels, int labelOffset, double[] minDistances) {
+        for (int done = 0; done < count; done += paddedRows) {
+            int chunk = Math.min(paddedRows, count - done);
+            assignChunk(rows, rowOffset + done * dimension, chunk, labels, labelOffset + done, minDistances, done);
+        }
+    }
+
+    private void assignChunk(double[] rows, int rowOffset, int count,
+                             int[] labels, int labelOffset, double[] minDistances, int distanceOffset) {
+        Scratch s = scratch.get();
+        double[] columns = s.columns;
+        int vectorRows = (count + LANES - 1) / LANES * LANES;
+
+        // Transpose to column-major: columns[j * paddedRows + r] = coordinate j of row r
+        for (int r = 0, offset = rowOffset; r < count; r++, offset += dimension) {
+            for (int j = 0; j < dimension; j++) {
+                columns[j * paddedRows + r] = rows[offset + j];
+            }
+        }
+        // Zero the padding lanes of the last vector; their results are discarded
+        for (int j = 0; j < dimension; j++) {
+            for (int r = count; r < vectorRows; r++) {
+                columns[j * paddedRows + r] = 0.0;
+            }
+        }
+
+        for (int r = 0; r < vectorRows; r += LANES) {
+            DoubleVector best = DoubleVector.broadcast(SPECIES, Double.MAX_VALUE);
+            DoubleVector bestIndex = DoubleVector.zero(SPECIES);
+
+            for (int c = 0, base = 0; c < k; c++, base += dimension) {
+                // Separate multiply and add, summed in the scalar kernels' order (two interleaved
+                // accumulators for d = 14), so every distance is bit-identical to the scalar one
+                DoubleVector acc = DoubleVector.zero(SPECIES);
+                DoubleVector odd = DoubleVector.zero(SPECIES);
+                for (int j = 0; j < dimension; j++) {
+                    DoubleVector x = DoubleVector.fromArray(SPECIES, columns, j * paddedRows + r);
+                    DoubleVector diff = x.sub(centroids[base + j]);
+                    if (pairwise && (j & 1) == 1) {
+                        odd = odd.add(diff.mul(diff));
+                    } else {
+                        acc = acc.add(diff.mul(diff));
+                    }
+                }
+                if (pairwise) {
+                    acc = acc.add(odd);
+                }
+                // Strict less-than keeps the lowest index on ties, like the scalar kernels
+                VectorMask<Double> closer = acc.compare(VectorOperators.LT, best);
+                best = best.blend(acc, closer);
+                bestIndex = bestIndex.blend(c, closer);
+            }
+
+            best.intoArray(s.best, r);
+            bestIndex.intoArray(s.bestIndex, r);
+        }
+
+        for (int r = 0; r < count; r++) {
+            labels[labelOffset + r] = (int) s.bestIndex[r];
+            minDistances[distanceOffset + r] = s.best[r];
+        }
+    }
+
+    // Per-thread buffers, sized once for a full tile
+    private static final class Scratch {
+        final double[] columns;
+        final double[] best;
+        final double[] bestIndex;
+
+        Scratch(int dimension, int paddedRows) {
+            this.columns = new double[dimension * paddedRows];
+            this.best = new double[paddedRows];
+            this.bestIndex = new double[paddedRows];
+        }
+    }
+}
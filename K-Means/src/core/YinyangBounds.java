@@ -0,0 +1,262 @@
+package core;
+
+import model.DataSet;
+import model.RowTiles;
+import util.DistanceUtils;
+
+import java.util.Arrays;
+
+/**
+ * Bounds for Yinyang k-means (Ding et al., ICML 2015), shared by the sequential and fork/join engines.
+ * The centroids are split once into t = ceil(k/10) groups by a few Lloyd iterations over the initial
+ * centroids. Per row it keeps an upper bound on the distance to its own centroid and one lower bound
+ * per group: O(n*t) memory, between Hamerly's O(n) and Elkan's O(n*k).
+ *
+ * Filtering happens at two levels. Globally, a row whose upper bound is below the smallest group
+ * bound keeps its label. Otherwise each group whose bound is below the upper bound is opened, and
+ * within it a centroid is skipped when the group's bound from the previous pass minus that
+ * centroid's own movement already exceeds the best distance found so far.
+ *
+ * Bounds are plain (not squared) Euclidean distances. {@link #setCentroids} is called by the
+ * engine thread between passes; {@link #assign} may then run concurrently on disjoint row ranges.
+ */
+final class YinyangBounds implements AssignmentBounds {
+
+    private static final int CENTROIDS_PER_GROUP = 10;
+    private static final int GROUPING_ITERATIONS = 5;
+
+    private final int k;
+    private final int dimension;
+    private final int groups;
+    private final int[] labels;          // shared with the engine
+    private final double[] upper;        // n, distance to the own centroid
+    private final double[] lower;        // n x t, distance to the nearest centroid of each group (own centroid excluded)
+    private final double[] movement;     // k, how far each centroid moved since the last pass
+    private final double[] groupMovement; // t, largest movement within each group
+    private int[] groupOf;               // k, group of each centroid
+    private int[] groupStart;            // t + 1, members of group g are members[groupStart[g] .. groupStart[g + 1])
+    private int[] members;
+    private double[] centroids;
+    private double[] previous;           // centroids of the last pass
+    private boolean firstPass = true;
+
+    YinyangBounds(int n, int k, int dimension, int[] labels) {
+        this.k = k;
+        this.dimension = dimension;
+        this.groups = (k + CENTROIDS_PER_GROUP - 1) / CENTROIDS_PER_GROUP;
+        this.labels = labels;
+        this.upper = new double[n];
+        this.lower = new double[Math.multiplyExact(n, groups)];
+        this.movement = new double[k];
+        this.groupMovement = new double[groups];
+    }
+
+    int getNumGroups() {
+        return groups;
+    }
+
+    /**
+     * Load this iteration's centroids. The first call also groups them; later calls record how far
+     * each centroid and each group moved (the bounds are adjusted lazily, row by row, in {@link #assign}).
+     */
+    @Override
+    public void setCentroids(double[] centroids) {
+        firstPass = previous == null;
+        if (firstPass) {
+            previous = new double[centroids.length];
+            groupCentroids(centroids);
+        } else {
+            Arrays.fill(groupMovement, 0.0);
+            for (int c = 0; c < k; c++) {
+                movement[c] = DistanceUtils.distance(previous, c * dimension, centroids, c * dimension, dimension);
+                groupMovement[groupOf[c]] = Math.max(groupMovement[groupOf[c]], movement[c]);
+            }
+        }
+        System.arraycopy(centroids, 0, previous, 0, centroids.length);
+        this.centroids = centroids;
+    }
+
+    // Small Lloyd run over the centroids themselves, seeded with evenly spaced centroids
+    private void groupCentroids(double[] centroids) {
+        groupOf = new int[k];
+        double[] seeds = new double[groups * dimension];
+        for (int g = 0; g < groups; g++) {
+            System.arraycopy(centroids, (int) ((long) g * k / groups) * dimension, seeds, g * dimension, dimension);
+        }
+
+        double[] distances = new double[k];
+        for (int iter = 0; iter < GROUPING_ITERATIONS; iter++) {
+            DistanceUtils.nearestCentroids(centroids, 0, k, seeds, groups, dimension, groupOf, 0, distances);
+            double[] sums = new double[groups * dimension];
+            int[] sizes = new int[groups];
+            for (int c = 0; c < k; c++) {
+                int g = groupOf[c];
+                sizes[g]++;
+                for (int j = 0; j < dimension; j++) {
+                    sums[g * dimension + j] += centroids[c * dimension + j];
+                }
+            }
+            for (int g = 0; g < groups; g++) {
+                if (sizes[g] == 0) {
+                    continue; // keep the seed; an empty group just never opens
+                }
+                for (int j = 0; j < dimension; j++) {
+                    seeds[g * dimension + j] = sums[g * dimension + j] / sizes[g];
+                }
+            }
+        }
+        DistanceUtils.nearestCentroids(centroids, 0, k, seeds, groups, dimension, groupOf, 0, distances);
+
+        groupStart = new int[groups + 1];
+        for (int c = 0; c < k; c++) {
+            groupStart[groupOf[c] + 1]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        members = new int[k];
+        int[] next = Arrays.copyOf(groupStart, groups);
+        for (int c = 0; c < k; c++) {
+            members[next[groupOf[c]]++] = c;
+        }
+    }
+
+    /**
+     * Assign rows [from, to) and accumulate their sums and counts. The accumulator's SSE is the sum
+     * of squared upper bounds, which is only an upper bound on the true SSE; the engines compute the
+     * exact value separately. With delta set, only the rows whose label changed are recorded, as
+     * moves between clusters for {@link RunningSums}.
+     */
+    @Override
+    public ClusterAccumulator assign(DataSet data, int from, int to, boolean delta) {
+        ClusterAccumulator local = new ClusterAccumulator(k, dimension);
+        double[] previousLower = new double[groups];
+        long computed = 0;
+        long reassigned = 0;
+
+        RowTiles tiles = data.tiles(from, to);
+        while (tiles.next()) {
+            double[] rows = tiles.rows();
+            for (int i = tiles.first(), offset = tiles.offset(); i < tiles.last(); i++, offset += dimension) {
+                int before = labels[i];
+                computed += firstPass ? initialize(i, rows, offset) : update(i, rows, offset, previousLower);
+                if (labels[i] != before) {
+                    reassigned++;
+                }
+                if (!delta) {
+                    local.add(labels[i], rows, offset, upper[i] * upper[i]);
+                } else {
+                    if (labels[i] != before) {
+                        local.move(before, labels[i], rows, offset);
+                    }
+                    local.addSSE(labels[i], upper[i] * upper[i]);
+                }
+            }
+        }
+
+        local.addDistanceComputations(computed);
+        local.addReassignments(reassigned);
+        return local;
+    }
+
+    // First pass: every distance is computed; each group bound is exact
+    private int initialize(int i, double[] rows, int offset) {
+        int base = i * groups;
+        Arrays.fill(lower, base, base + groups, Double.MAX_VALUE);
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for (int c = 0; c < k; c++) {
+            double d = distance(rows, offset, c);
+            if (d < best) {
+                if (best != Double.MAX_VALUE) {
+                    lowerGroupBound(base + groupOf[nearest], best);
+                }
+                best = d;
+                nearest = c;
+            } else {
+                lowerGroupBound(base + groupOf[c], d);
+            }
+        }
+        labels[i] = nearest;
+        upper[i] = best;
+        return k;
+    }
+
+    // Later passes: global filter on the smallest group bound, then group and local filters
+    private int update(int i, double[] rows, int offset, double[] previousLower) {
+        int base = i * groups;
+        int a = labels[i];
+        double u = upper[i] + movement[a];
+        double globalLower = Double.MAX_VALUE;
+        for (int g = 0; g < groups; g++) {
+            previousLower[g] = lower[base + g];
+            lower[base + g] = previousLower[g] - groupMovement[g];
+            globalLower = Math.min(globalLower, lower[base + g]);
+        }
+        upper[i] = u;
+        if (u <= globalLower) {
+            return 0;
+        }
+
+        u = distance(rows, offset, a);
+        upper[i] = u;
+        int computed = 1;
+        if (u <= globalLower) {
+            return computed;
+        }
+
+        int best = a;
+        double bestDistance = u;
+        for (int g = 0; g < groups; g++) {
+            if (lower[base + g] >= bestDistance) {
+                continue; // group filter: no centroid of this group can be closer
+            }
+            double groupLower = Double.MAX_VALUE;
+            for (int m = groupStart[g]; m < groupStart[g + 1]; m++) {
+                int c = members[m];
+                if (c == a) {
+                    continue;
+                }
+                double bound = previousLower[g] - movement[c];
+                if (bound >= bestDistance) {
+                    groupLower = Math.min(groupLower, bound); // local filter
+                    continue;
+                }
+                double d = distance(rows, offset, c);
+                computed++;
+                if (d < bestDistance) {
+                    // the displaced centroid becomes a lower-bound candidate for its own group
+                    if (best != a) {
+                        if (groupOf[best] == g) {
+                            groupLower = Math.min(groupLower, bestDistance);
+                        } else {
+                            lowerGroupBound(base + groupOf[best], bestDistance);
+                        }
+                    }
+                    best = c;
+                    bestDistance = d;
+                } else {
+                    groupLower = Math.min(groupLower, d);
+                }
+            }
+            lower[base + g] = groupLower;
+        }
+        if (best != a) {
+            lowerGroupBound(base + groupOf[a], u);
+        }
+
+        labels[i] = best;
+        upper[i] = bestDistance;
+        return computed;
+    }
+
+    private void lowerGroupBound(int index, double distance) {
+        if (distance < lower[index]) {
+            lower[index] = distance;
+        }
+    }
+
+    private double distance(double[] rows, int offset, int centroid) {
+        return Math.sqrt(DistanceUtils.squaredDistance(rows, offset, centroids, centroid * dimension, dimension));
+    }
+}
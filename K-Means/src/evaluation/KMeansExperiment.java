@@ -1,11 +1,14 @@
 package evaluation;
 
+import bonus.KSweep;
+import bonus.KSweepResult;
 import bonus.MultiStartKMeans;
 import bonus.MultiStartResult;
 import core.KMeansConfig;
 import core.KMeansParallel;
 import core.KMeansSequential;
 import model.Point;
+import model.PointMatrix;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,7 +42,7 @@ public class KMeansExperiment {
                 long startSeq = System.currentTimeMillis();
                 sequential.run();
                 long endSeq = System.currentTimeMillis();
-                double sseSeq = SSECalculator.computeSSE(sequential.getClusters());
+                double sseSeq = sequential.computeSSE();
                 long runtimeSeq = endSeq - startSeq;
 
                 // --- Parallel ---
@@ -47,7 +50,7 @@ public class KMeansExperiment {
                 long startPar = System.currentTimeMillis();
                 parallel.run();
                 long endPar = System.currentTimeMillis();
-                double ssePar = SSECalculator.computeSSE(parallel.getClusters());
+                double ssePar = parallel.computeSSE();
                 long runtimePar = endPar - startPar;
 
                 // Print results in table row
@@ -71,7 +74,7 @@ public class KMeansExperiment {
         String initType = useKMeansPlusPlus ? "k-means++" : "random";
         String implType = useParallel ? "Parallel" : "Sequential";
         System.out.println("\n=== MultiStart K-Means Experiment (" + implType + ", " + initType + " initialization) ===");
-        System.out.println("Dataset size | K | Best SSE | Total Runtime(ms) | Avg Runtime(ms) | Best Restart");
+        System.out.println("Dataset size | K | Best SSE | Total Runtime(ms) | Avg Runtime(ms) | Wall Time(ms) | Best Restart");
 
         for (int size : subsetSizes) {
             // Take a subset of the dataset if needed
@@ -86,13 +89,68 @@ public class KMeansExperiment {
                 MultiStartResult result = multiStart.run();
 
                 // Print results in table row
-                System.out.printf("%12d | %2d | %9.2f | %16d | %15d | %12d%n",
+                System.out.printf("%12d | %2d | %9.2f | %16d | %15d | %13d | %12d%n",
                         currentDataset.size(), k, result.getSSE(), result.getTotalTime(),
-                        result.getTotalTime() / numRestarts, result.getBestRestart());
+                        result.getTotalTime() / numRestarts, result.getWallTime(), result.getBestRestart());
             }
         }
     }
 
+    /**
+     * SSE-vs-k curve for elbow analysis: every k in [kMin, kMax] through a warm-started {@link KSweep}
+     * @param kMin smallest K to test
+     * @param kMax largest K to test
+     * @param subsetSizes array of dataset sizes to test
+     * @param useParallel whether to use parallel implementation
+     */
+    public void runKSweepExperiment(int kMin, int kMax, int[] subsetSizes, boolean useParallel) {
+        String implType = useParallel ? "Parallel" : "Sequential";
+        System.out.println("\n=== K Sweep Experiment (" + implType + ", warm-started) ===");
+
+        for (int size : subsetSizes) {
+            // Take a subset of the dataset if needed
+            List<Point> currentDataset = new ArrayList<>(dataset.subList(0, Math.min(size, dataset.size())));
+            KMeansConfig config = new KMeansConfig(kMin, 1000, 0.00000000001);
+
+            KSweepResult result = new KSweep(config, currentDataset, kMin, Math.min(kMax, currentDataset.size()),
+                    useParallel).run();
+
+            System.out.println("Dataset size | K | SSE | Iterations | Runtime(ms)");
+            for (int k : result.getKValues()) {
+                System.out.printf("%12d | %2d | %14.2f | %10d | %11d%s%n",
+                        currentDataset.size(), k, result.getSSE(k), result.getIterations(k), result.getTime(k),
+                        k == result.getElbowK() ? "  <- elbow" : "");
+            }
+            System.out.println("Total runtime: " + result.getTotalTime() + "ms, Wall time: " + result.getWallTime() + "ms");
+        }
+    }
+
+    /**
+     * Scaling study on the full dataset: warmed-up, repeated trials of the sequential engine and of
+     * the parallel engine at 1, 2, 4, ... threads, all from the same initial centroids and seed.
+     * Unlike {@link #runExperiment}, the reported times are medians in ns resolution, not one cold run.
+     * @param k number of clusters
+     * @param warmupRounds untimed runs before each configuration's trials
+     * @param trials timed runs per configuration
+     * @param outputPrefix results go to outputPrefix.csv and outputPrefix.json; null to only print them
+     */
+    public void runScalingExperiment(int k, int warmupRounds, int trials, String outputPrefix) {
+        System.out.println("\n=== Scaling Experiment ===");
+        KMeansConfig config = new KMeansConfig(k, 1000, 0.00000000001);
+
+        ScalingExperiment scaling = new ScalingExperiment(config, PointMatrix.fromPoints(dataset));
+        scaling.setWarmupRounds(warmupRounds);
+        scaling.setTrials(trials);
+        scaling.run();
+        scaling.printTable();
+
+        if (outputPrefix != null) {
+            scaling.writeCSV(outputPrefix + ".csv");
+            scaling.writeJSON(outputPrefix + ".json");
+            System.out.println("Saved scaling results to " + outputPrefix + ".csv and " + outputPrefix + ".json");
+        }
+    }
+
     /**
      * Run comprehensive experiments including bonus features
      * Compares standard implementations with MultiStart variants
@@ -141,6 +199,9 @@ public class KMeansExperiment {
         
         // Run standard experiment
         mallExperiment.runExperiment(kValues, new int[]{mallPoints.size()});
+
+        // SSE-vs-k curve for choosing K; sequential engines, so the sweep runs one chain per core
+        mallExperiment.runKSweepExperiment(2, kValues[kValues.length - 1], new int[]{mallPoints.size()}, false);
         
         // Run comprehensive experiment with bonus features
         System.out.println("\n--- Running Comprehensive Experiment with Bonus Features ---");
@@ -152,6 +213,12 @@ public class KMeansExperiment {
         
         // Run standard experiment
         bankExperiment.runExperiment(kValues, new int[]{bankPoints.size()});
+
+        // SSE-vs-k curve for choosing K; sequential engines, so the sweep runs one chain per core
+        bankExperiment.runKSweepExperiment(2, kValues[kValues.length - 1], new int[]{bankPoints.size()}, false);
+
+        // Speedup, efficiency and serial fraction across thread counts
+        bankExperiment.runScalingExperiment(kValues[0], 3, 10, "scaling_bank");
         
         // Run comprehensive experiment with bonus features
         System.out.println("\n--- Running Comprehensive Experiment with Bonus Features ---");
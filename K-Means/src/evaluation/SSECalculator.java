@@ -1,25 +1,194 @@
 package evaluation;
 
 import model.Cluster;
+import model.DataSet;
 import model.Point;
+import model.RowTiles;
 import util.DistanceUtils;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+/**
+ * Sum of squared errors of a clustering. Every total here is a Neumaier (improved Kahan) sum, so
+ * the result keeps close to full double precision even over 10^8 rows, where a plain running sum
+ * would lose the small contributions of well-fitting rows.
+ *
+ * The exact Lloyd engines get their SSE from the assignment pass itself; these passes are for
+ * engines whose pass only bounds the distances and for clusters built outside an engine.
+ */
 public class SSECalculator {
-    
-    
+
+    private static final int LEAF_ROWS = 4096; // rows per task of the parallel pass
+
     public static double computeSSE(List<Cluster> clusters) {
-        double sse = 0.0;
+        return total(computeClusterSSE(clusters));
+    }
+
+    /**
+     * SSE of every cluster's own points against its centroid
+     */
+    public static double[] computeClusterSSE(List<Cluster> clusters) {
+        int k = clusters.size();
+        double[] sse = new double[k];
+        double[] compensation = new double[k];
+
+        for (int c = 0; c < k; c++) {
+            Cluster cluster = clusters.get(c);
+            List<Point> points = cluster.getPoints();
+            if (points.isEmpty()) {
+                continue;
+            }
+            double[] centroid = cluster.getCentroid().getCoordinates();
+            int dim = centroid.length;
+            double[] row = new double[dim]; // reused for every point, so the kernel sees flat rows
+
+            for (Point p : points) {
+                // A list, unlike a matrix, can mix dimensions, so every point is checked
+                DistanceUtils.checkDimensions(p.getDimension(), dim);
+                for (int i = 0; i < dim; i++) {
+                    row[i] = p.getCoordinate(i);
+                }
+                addCompensated(sse, compensation, c, DistanceUtils.squaredDistance(row, 0, centroid, 0, dim));
+            }
+        }
+
+        return withCompensation(sse, compensation);
+    }
+
+    /**
+     * SSE of a label-array assignment
+     * @param labels    cluster index of every row
+     * @param centroids k x d row-major centroids
+     */
+    public static double computeSSE(DataSet data, int[] labels, double[] centroids) {
+        return total(computeClusterSSE(data, labels, centroids));
+    }
+
+    /**
+     * Same as {@link #computeSSE(DataSet, int[], double[])}, as a fork/join pass on the given pool
+     */
+    public static double computeSSE(DataSet data, int[] labels, double[] centroids, ForkJoinPool pool) {
+        return total(computeClusterSSE(data, labels, centroids, pool));
+    }
+
+    /**
+     * Per-cluster SSE of a label-array assignment, in one sequential pass
+     */
+    public static double[] computeClusterSSE(DataSet data, int[] labels, double[] centroids) {
+        int k = centroids.length / data.getDimension();
+        PartialSSE partial = new ClusterSSETask(data, labels, centroids, k, 0, data.size()).scan();
+        return withCompensation(partial.sums, partial.compensations);
+    }
+
+    /**
+     * Per-cluster SSE of a label-array assignment; leaves of {@value #LEAF_ROWS} rows keep their own
+     * compensated sums, which are merged up the task tree
+     */
+    public static double[] computeClusterSSE(DataSet data, int[] labels, double[] centroids, ForkJoinPool pool) {
+        int k = centroids.length / data.getDimension();
+        PartialSSE partial = pool.invoke(new ClusterSSETask(data, labels, centroids, k, 0, data.size()));
+        return withCompensation(partial.sums, partial.compensations);
+    }
 
-        for (Cluster c : clusters) {
-            Point centroid = c.getCentroid();
-            for (Point p : c.getPoints()) {
-                double dist = DistanceUtils.distance(p, centroid);
-                sse += dist * dist;
+    /**
+     * Neumaier step: add value to sums[index], keeping the rounding error in compensations[index]
+     */
+    public static void addCompensated(double[] sums, double[] compensations, int index, double value) {
+        double sum = sums[index];
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensations[index] += (sum - t) + value;
+        } else {
+            compensations[index] += (value - t) + sum;
+        }
+        sums[index] = t;
+    }
+
+    /**
+     * Compensated sum of the values, e.g. the total of a per-cluster SSE
+     */
+    public static double total(double[] values) {
+        double[] sum = new double[1];
+        double[] compensation = new double[1];
+        for (double v : values) {
+            addCompensated(sum, compensation, 0, v);
+        }
+        return sum[0] + compensation[0];
+    }
+
+    private static double[] withCompensation(double[] sums, double[] compensations) {
+        double[] result = new double[sums.length];
+        for (int c = 0; c < sums.length; c++) {
+            result[c] = sums[c] + compensations[c];
+        }
+        return result;
+    }
+
+    /**
+     * Per-cluster compensated sums of a range of rows, with their compensations
+     */
+    private static final class PartialSSE {
+        final double[] sums;
+        final double[] compensations;
+
+        PartialSSE(int k) {
+            this.sums = new double[k];
+            this.compensations = new double[k];
+        }
+    }
+
+    /**
+     * Per-cluster compensated SSE over rows [from, to)
+     */
+    private static final class ClusterSSETask extends RecursiveTask<PartialSSE> {
+        private final DataSet data;
+        private final int[] labels;
+        private final double[] centroids;
+        private final int k;
+        private final int from;
+        private final int to;
+
+        ClusterSSETask(DataSet data, int[] labels, double[] centroids, int k, int from, int to) {
+            this.data = data;
+            this.labels = labels;
+            this.centroids = centroids;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PartialSSE compute() {
+            if (to - from <= LEAF_ROWS) {
+                return scan();
+            }
+            int mid = (from + to) >>> 1;
+            ClusterSSETask left = new ClusterSSETask(data, labels, centroids, k, from, mid);
+            left.fork();
+            PartialSSE right = new ClusterSSETask(data, labels, centroids, k, mid, to).compute();
+            PartialSSE merged = left.join();
+            for (int c = 0; c < k; c++) {
+                addCompensated(merged.sums, merged.compensations, c, right.sums[c]);
+                merged.compensations[c] += right.compensations[c];
             }
+            return merged;
         }
 
-        return sse;
+        PartialSSE scan() {
+            int dim = data.getDimension();
+            PartialSSE partial = new PartialSSE(k);
+            RowTiles tiles = data.tiles(from, to);
+            while (tiles.next()) {
+                double[] coords = tiles.rows();
+                for (int i = tiles.first(), offset = tiles.offset(); i < tiles.last(); i++, offset += dim) {
+                    int c = labels[i];
+                    double d = DistanceUtils.squaredDistance(coords, offset, centroids, c * dim, dim);
+                    addCompensated(partial.sums, partial.compensations, c, d);
+                }
+            }
+            return partial;
+        }
     }
 }
@@ -0,0 +1,265 @@
+package evaluation;
+
+import bonus.KMeansPlusPlusInitializer;
+import core.KMeansConfig;
+import core.KMeansEngine;
+import model.Cluster;
+import model.DataSet;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Strong-scaling study of one engine: the sequential engine as baseline, on a one-thread pool so the
+ * methods that always use the config's pool (mini-batch, kd-tree) stay serial too, then the parallel
+ * engine of the same {@link core.KMeansMethod} on dedicated pools of 1, 2, 4, ... threads up to the
+ * number of cores. Every configuration gets its own warmup rounds before its measured trials, so the JIT
+ * has compiled both sides before anything is timed. Every run starts from the same k-means++
+ * centroids and the same seed, so all of them do the same work, and each is timed with
+ * {@link System#nanoTime()} around {@code run()} alone, with the engines' own output turned off.
+ *
+ * The report gives median and p95 time, speedup and parallel efficiency against the sequential
+ * median, and the Karp-Flatt serial fraction, as a table, CSV or JSON.
+ */
+public class ScalingExperiment {
+
+    private final KMeansConfig config;
+    private final DataSet data;
+    private int warmupRounds = 3;
+    private int trials = 10;
+    private int[] threadCounts = defaultThreadCounts();
+
+    private List<Cluster> initialClusters;
+    private ScalingResult baseline;
+    private List<ScalingResult> results;
+
+    /**
+     * @param config k, iterations, tolerance, method and seed of every run; its pool is not used
+     */
+    public ScalingExperiment(KMeansConfig config, DataSet data) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        if (data == null || data.size() == 0) {
+            throw new IllegalArgumentException("Dataset cannot be null or empty");
+        }
+        this.config = config;
+        this.data = data;
+    }
+
+    /**
+     * 1, 2, 4, ... up to the number of available cores, which is always included
+     */
+    public static int[] defaultThreadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            counts.add(t);
+        }
+        counts.add(cores);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public void setWarmupRounds(int warmupRounds) {
+        if (warmupRounds < 0) {
+            throw new IllegalArgumentException("Warmup rounds must be non-negative");
+        }
+        this.warmupRounds = warmupRounds;
+    }
+
+    public void setTrials(int trials) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("Number of trials must be positive");
+        }
+        this.trials = trials;
+    }
+
+    public void setThreadCounts(int[] threadCounts) {
+        if (threadCounts == null || threadCounts.length == 0) {
+            throw new IllegalArgumentException("Thread counts cannot be null or empty");
+        }
+        for (int t : threadCounts) {
+            if (t <= 0) {
+                throw new IllegalArgumentException("Thread counts must be positive");
+            }
+        }
+        this.threadCounts = threadCounts.clone();
+    }
+
+    /**
+     * Measure the baseline and every thread count; the results stay available to the reporting methods
+     */
+    public List<ScalingResult> run() {
+        initialClusters = KMeansPlusPlusInitializer.initializeClusters(data, config.getK(), config.newRandom());
+        System.out.println("Scaling study: n = " + data.size() + ", k = " + config.getK() + ", " +
+                config.getMethod() + ", " + warmupRounds + " warmup rounds, " + trials + " trials");
+
+        KMeansConfig quiet = config.copy();
+        quiet.setVerbose(false); // keep console I/O out of the timed window
+        KMeansConfig sequentialConfig = quiet.copy();
+        ForkJoinPool serialPool = sequentialConfig.createDedicatedPool(1);
+        try {
+            baseline = measure("sequential", 1, sequentialConfig, false);
+        } finally {
+            serialPool.shutdown();
+        }
+        results = new ArrayList<>();
+        results.add(baseline);
+        for (int threads : threadCounts) {
+            KMeansConfig parallelConfig = quiet.copy();
+            ForkJoinPool pool = parallelConfig.createDedicatedPool(threads);
+            try {
+                ScalingResult result = measure("parallel", threads, parallelConfig, true);
+                if (result.getIterations() != baseline.getIterations()) {
+                    System.out.println("Warning: " + threads + " threads ran " + result.getIterations() +
+                            " iterations, the baseline " + baseline.getIterations());
+                }
+                results.add(result);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return results;
+    }
+
+    // Warmup rounds, then the timed trials, of one configuration
+    private ScalingResult measure(String label, int threads, KMeansConfig runConfig, boolean parallel) {
+        for (int round = 0; round < warmupRounds; round++) {
+            runOnce(runConfig, parallel);
+        }
+        long[] times = new long[trials];
+        KMeansEngine engine = null;
+        for (int trial = 0; trial < trials; trial++) {
+            engine = KMeansEngine.create(runConfig, data, parallel);
+            engine.setInitialClusters(initialClusters);
+            long start = System.nanoTime();
+            engine.run();
+            times[trial] = System.nanoTime() - start;
+        }
+        return new ScalingResult(label, threads, times, engine.getIterationsCompleted(), engine.computeSSE());
+    }
+
+    private void runOnce(KMeansConfig runConfig, boolean parallel) {
+        KMeansEngine engine = KMeansEngine.create(runConfig, data, parallel);
+        engine.setInitialClusters(initialClusters);
+        engine.run();
+    }
+
+    public List<ScalingResult> getResults() {
+        checkRun();
+        return results;
+    }
+
+    public ScalingResult getBaseline() {
+        checkRun();
+        return baseline;
+    }
+
+    /**
+     * One row per configuration: times in ms, speedup and efficiency against the sequential median
+     */
+    public void printTable() {
+        checkRun();
+        System.out.println("Config     | Threads | Median(ms) | P95(ms)  | Speedup | Efficiency | Karp-Flatt | Iterations");
+        for (ScalingResult result : results) {
+            System.out.println(String.format(Locale.ROOT, "%-10s | %7d | %10.3f | %8.3f | %7.2f | %10.2f | %10s | %10d",
+                    result.getLabel(), result.getThreads(), result.getMedian() / 1e6, result.getP95() / 1e6,
+                    result.speedupOver(baseline), result.efficiencyOver(baseline),
+                    format(result.karpFlattOver(baseline)), result.getIterations()));
+        }
+    }
+
+    public String toCSV() {
+        checkRun();
+        StringBuilder csv = new StringBuilder(
+                "config,threads,trials,median_ms,p95_ms,min_ms,mean_ms,speedup,efficiency,karp_flatt,iterations,sse\n");
+        for (ScalingResult result : results) {
+            csv.append(result.getLabel()).append(',')
+                    .append(result.getThreads()).append(',')
+                    .append(result.getTrials()).append(',')
+                    .append(format(result.getMedian() / 1e6)).append(',')
+                    .append(format(result.getP95() / 1e6)).append(',')
+                    .append(format(result.getMin() / 1e6)).append(',')
+                    .append(format(result.getMean() / 1e6)).append(',')
+                    .append(format(result.speedupOver(baseline))).append(',')
+                    .append(format(result.efficiencyOver(baseline))).append(',')
+                    .append(format(result.karpFlattOver(baseline))).append(',')
+                    .append(result.getIterations()).append(',')
+                    .append(format(result.getSSE())).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * The study's parameters and one object per configuration, raw trial times (ns) included; NaN is written as null
+     */
+    public String toJSON() {
+        checkRun();
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"n\": ").append(data.size()).append(",\n");
+        json.append("  \"dimension\": ").append(data.getDimension()).append(",\n");
+        json.append("  \"k\": ").append(config.getK()).append(",\n");
+        json.append("  \"method\": \"").append(config.getMethod().name()).append("\",\n");
+        json.append("  \"seed\": ").append(config.getSeed()).append(",\n");
+        json.append("  \"warmupRounds\": ").append(warmupRounds).append(",\n");
+        json.append("  \"cores\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        json.append("  \"results\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            ScalingResult result = results.get(i);
+            json.append("    {\"config\": \"").append(result.getLabel()).append('"')
+                    .append(", \"threads\": ").append(result.getThreads())
+                    .append(", \"medianMs\": ").append(jsonNumber(result.getMedian() / 1e6))
+                    .append(", \"p95Ms\": ").append(jsonNumber(result.getP95() / 1e6))
+                    .append(", \"minMs\": ").append(jsonNumber(result.getMin() / 1e6))
+                    .append(", \"meanMs\": ").append(jsonNumber(result.getMean() / 1e6))
+                    .append(", \"speedup\": ").append(jsonNumber(result.speedupOver(baseline)))
+                    .append(", \"efficiency\": ").append(jsonNumber(result.efficiencyOver(baseline)))
+                    .append(", \"karpFlatt\": ").append(jsonNumber(result.karpFlattOver(baseline)))
+                    .append(", \"iterations\": ").append(result.getIterations())
+                    .append(", \"sse\": ").append(jsonNumber(result.getSSE()))
+                    .append(", \"timesNs\": [");
+            long[] times = result.getTimes();
+            for (int t = 0; t < times.length; t++) {
+                json.append(t > 0 ? ", " : "").append(times[t]);
+            }
+            json.append("]}").append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+        return json.toString();
+    }
+
+    public void writeCSV(String filePath) {
+        write(filePath, toCSV());
+    }
+
+    public void writeJSON(String filePath) {
+        write(filePath, toJSON());
+    }
+
+    private static void write(String filePath, String content) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            writer.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write scaling results to: " + filePath, e);
+        }
+    }
+
+    private void checkRun() {
+        if (results == null) {
+            throw new IllegalStateException("Scaling experiment has not been run");
+        }
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    private static String jsonNumber(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.6g", value);
+    }
+}
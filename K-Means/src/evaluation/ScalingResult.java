@@ -0,0 +1,116 @@
+package evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Timings of one configuration of a {@link ScalingExperiment}: the sequential baseline or the
+ * parallel engine at one thread count, over its measured trials
+ */
+public class ScalingResult {
+    private final String label;
+    private final int threads;
+    private final long[] times;         // ns per trial, in trial order
+    private final int iterations;
+    private final double sse;
+
+    /**
+     * @param label      "sequential" or "parallel"
+     * @param threads    workers of the engine's pool; 1 for the sequential baseline
+     * @param times      wall time of each measured trial in ns
+     * @param iterations iterations of the last trial (every trial does the same work)
+     * @param sse        SSE of the last trial
+     */
+    public ScalingResult(String label, int threads, long[] times, int iterations, double sse) {
+        this.label = label;
+        this.threads = threads;
+        this.times = times.clone();
+        this.iterations = iterations;
+        this.sse = sse;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long[] getTimes() {
+        return times.clone();
+    }
+
+    public int getTrials() {
+        return times.length;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getSSE() {
+        return sse;
+    }
+
+    /**
+     * Median trial time in ns; the mean of the two middle trials for an even count
+     */
+    public double getMedian() {
+        long[] sorted = sorted();
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+
+    /**
+     * 95th percentile trial time in ns, by nearest rank
+     */
+    public double getP95() {
+        long[] sorted = sorted();
+        int rank = (int) Math.ceil(0.95 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public double getMin() {
+        return sorted()[0];
+    }
+
+    public double getMean() {
+        double total = 0.0;
+        for (long time : times) {
+            total += time;
+        }
+        return total / times.length;
+    }
+
+    /**
+     * Median speedup over a baseline: baseline median / this median
+     */
+    public double speedupOver(ScalingResult baseline) {
+        return baseline.getMedian() / getMedian();
+    }
+
+    /**
+     * Parallel efficiency: speedup / threads
+     */
+    public double efficiencyOver(ScalingResult baseline) {
+        return speedupOver(baseline) / threads;
+    }
+
+    /**
+     * Karp-Flatt experimentally determined serial fraction, (1/S - 1/p) / (1 - 1/p); NaN for one thread.
+     * A fraction that grows with p points at parallel overhead rather than inherently serial work.
+     */
+    public double karpFlattOver(ScalingResult baseline) {
+        if (threads <= 1) {
+            return Double.NaN;
+        }
+        double p = threads;
+        return (1.0 / speedupOver(baseline) - 1.0 / p) / (1.0 - 1.0 / p);
+    }
+
+    private long[] sorted() {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -1,16 +1,20 @@
 package gui;
 
+import core.AssignmentKernel;
+import core.ClusterAccumulator;
 import core.KMeansAssignTask;
 import core.KMeansConfig;
 import core.KMeansParallel;
 import core.KMeansSequential;
-import core.RecomputeCentroidsTask;
+import core.TaskGranularity;
+import model.Assignment;
 import model.Cluster;
 import model.Point;
+import model.PointMatrix;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -26,15 +30,18 @@ public class CentroidAnimationController {
     
     private final KMeansConfig config;
     private final List<Point> points;
+    private final PointMatrix data;
     private final boolean useParallel;
     private final boolean useKMeansPlusPlus;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     private int lastIterationCount = 0;
+    private double lastSSE;             // SSE after the last parallel iteration, from its assignment pass
     
     public CentroidAnimationController(KMeansConfig config, List<Point> points, 
                                       boolean useParallel, boolean useKMeansPlusPlus) {
         this.config = config;
         this.points = new ArrayList<>(points);
+        this.data = PointMatrix.fromPoints(this.points);
         this.useParallel = useParallel;
         this.useKMeansPlusPlus = useKMeansPlusPlus;
     }
@@ -59,7 +66,7 @@ public class CentroidAnimationController {
             long endTime = System.currentTimeMillis();
             long totalTime = endTime - startTime;
             
-            double finalSSE = computeSSE(clusters);
+            double finalSSE = useParallel ? lastSSE : computeSSE(clusters);
             int finalIterations = lastIterationCount;
             
             if (listener != null) {
@@ -75,7 +82,7 @@ public class CentroidAnimationController {
         KMeansSequential kmeans = new KMeansSequential(config, points);
         
         if (useKMeansPlusPlus) {
-            List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(points, config.getK());
+            List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(points, config.getK(), config.newRandom());
             kmeans.setInitialClusters(initialClusters);
         }
         
@@ -134,7 +141,7 @@ public class CentroidAnimationController {
         KMeansParallel kmeans = new KMeansParallel(config, points);
         
         if (useKMeansPlusPlus) {
-            List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(points, config.getK());
+            List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(points, config.getK(), config.newRandom());
             kmeans.setInitialClusters(initialClusters);
         }
         
@@ -142,37 +149,48 @@ public class CentroidAnimationController {
         // So we'll create our own copy
         List<Cluster> clusters = new ArrayList<>();
         if (useKMeansPlusPlus) {
-            clusters = bonus.KMeansPlusPlusInitializer.initializeClusters(points, config.getK());
+            clusters = bonus.KMeansPlusPlusInitializer.initializeClusters(points, config.getK(), config.newRandom());
         } else {
-            // Initialize randomly
-            java.util.Collections.shuffle(new ArrayList<>(points), new java.util.Random());
+            // Initialize randomly, from the config's seed
+            List<Point> shuffled = new ArrayList<>(points);
+            java.util.Collections.shuffle(shuffled, config.newRandom());
             for (int i = 0; i < config.getK(); i++) {
-                clusters.add(new Cluster(new Point(points.get(i).getCoordinates())));
+                clusters.add(new Cluster(new Point(shuffled.get(i).getCoordinates())));
             }
         }
         
+        lastSSE = computeSSE(clusters);
         if (listener != null) {
-            listener.onIterationComplete(deepCopyClusters(clusters), 0, computeSSE(clusters));
+            listener.onIterationComplete(deepCopyClusters(clusters), 0, lastSSE);
         }
         
         boolean converged = false;
         int iteration = 0;
-        java.util.concurrent.ForkJoinPool pool = java.util.concurrent.ForkJoinPool.commonPool();
+        // Same pool, kernel and leaf sizing as the parallel engines
+        ForkJoinPool pool = config.getPool();
+        TaskGranularity granularity = config.getGranularity();
+        AssignmentKernel kernel = config.getAssignmentStrategy().createKernel(data, clusters.size());
+        int leafSize = granularity.initialLeafSize(data.size(), clusters.size(), data.getDimension(),
+                pool.getParallelism(), config.getLeafSize());
+        int[] labels = new int[data.size()];
         
         while (!converged && iteration < config.getMaxIterations()) {
-            // Clear points
-            for (Cluster c : clusters) {
-                c.clearPoints();
+            // Parallel assignment fused with per-cluster sums (local-reduce-merge pattern)
+            kernel.setCentroids(PointMatrix.fromCentroids(clusters).getData());
+            long passStart = System.nanoTime();
+            KMeansAssignTask assignTask = new KMeansAssignTask(data, 0, data.size(), kernel, labels, leafSize);
+            ClusterAccumulator partials = pool.invoke(assignTask);
+            if (iteration == 1) { // the first pass also pays for JIT compilation
+                leafSize = granularity.calibratedLeafSize(System.nanoTime() - passStart, data.size(),
+                        pool.getParallelism(), leafSize);
             }
+            // Bind cluster membership to the labels
+            new Assignment(labels, partials.getCounts(), points::get).bind(clusters);
             
-            // Parallel assignment using local-reduce-merge pattern
-            KMeansAssignTask assignTask = new KMeansAssignTask(points, 0, points.size(), clusters);
-            Map<Integer, List<Point>> assignments = pool.invoke(assignTask);
-            // Merge local accumulations into clusters
-            KMeansAssignTask.mergeIntoClusters(assignments, clusters);
-            
-            // Parallel recomputation
-            converged = pool.invoke(new RecomputeCentroidsTask(clusters, 0, clusters.size(), config));
+            // New centroids from the merged sums; the pass's SSE carried over to them
+            double[] clusterSSE = partials.getClusterSSE();
+            converged = recomputeCentroids(clusters, partials, clusterSSE);
+            lastSSE = evaluation.SSECalculator.total(clusterSSE);
             
             iteration++;
             lastIterationCount = iteration;
@@ -180,7 +198,7 @@ public class CentroidAnimationController {
             // Notify listener and wait for UI to update
             if (listener != null) {
                 List<Cluster> currentClusters = deepCopyClusters(clusters);
-                listener.onIterationComplete(currentClusters, iteration, computeSSE(currentClusters));
+                listener.onIterationComplete(currentClusters, iteration, lastSSE);
                 
                 // Wait for UI to update before continuing
                 try {
@@ -239,6 +257,32 @@ public class CentroidAnimationController {
         return converged;
     }
     
+    // Each clusterSSE entry drops by count * movement^2 as its centroid moves to the mean
+    private boolean recomputeCentroids(List<Cluster> clusters, ClusterAccumulator partials, double[] clusterSSE) {
+        boolean converged = true;
+        int dim = partials.getDimension();
+        
+        for (int c = 0; c < clusters.size(); c++) {
+            int count = partials.getCounts()[c];
+            if (count == 0) {
+                continue;
+            }
+            double[] coords = new double[dim];
+            for (int j = 0; j < dim; j++) {
+                coords[j] = partials.getSums()[c * dim + j] / count;
+            }
+            Point newCentroid = new Point(coords);
+            double movement = clusters.get(c).getCentroid().distanceTo(newCentroid);
+            if (movement > config.getTolerance()) {
+                converged = false;
+            }
+            clusterSSE[c] = Math.max(0.0, clusterSSE[c] - count * movement * movement);
+            clusters.get(c).setCentroid(newCentroid);
+        }
+        
+        return converged;
+    }
+    
     private double computeSSE(List<Cluster> clusters) {
         return evaluation.SSECalculator.computeSSE(clusters);
     }
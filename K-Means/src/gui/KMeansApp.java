@@ -3,8 +3,8 @@ package gui;
 import bonus.MultiStartKMeans;
 import bonus.MultiStartResult;
 import core.KMeansConfig;
-import core.KMeansParallel;
-import core.KMeansSequential;
+import core.KMeansEngine;
+import core.KMeansMethod;
 import evaluation.SSECalculator;
 import model.Cluster;
 import model.DataSetLoader;
@@ -33,6 +33,7 @@ public class KMeansApp extends JFrame {
     private JSpinner toleranceSpinner;
     private JRadioButton sequentialRadio;
     private JRadioButton parallelRadio;
+    private JComboBox<KMeansMethod> methodCombo;
     private JCheckBox kmeansPlusPlusCheck;
     private JCheckBox multiStartCheck;
     private JSpinner numRestartsSpinner;
@@ -265,6 +266,12 @@ public class KMeansApp extends JFrame {
         implGroup.add(sequentialRadio);
         implGroup.add(parallelRadio);
 
+        // Algorithm selection (same result, different number of distance computations)
+        methodCombo = new JComboBox<>(KMeansMethod.values());
+        methodCombo.setBackground(new Color(40, 40, 45));
+        methodCombo.setForeground(new Color(220, 220, 220));
+        methodCombo.setOpaque(true);
+
         // Initialization options
         kmeansPlusPlusCheck = new JCheckBox("Use k-means++ Initialization");
 
@@ -515,6 +522,9 @@ public class KMeansApp extends JFrame {
         panel.add(implPanel);
         panel.add(Box.createVerticalStrut(10));
 
+        panel.add(createLabeledComponent("Method:", methodCombo));
+        panel.add(Box.createVerticalStrut(10));
+
         panel.add(kmeansPlusPlusCheck);
         panel.add(Box.createVerticalStrut(10));
 
@@ -611,8 +621,10 @@ public class KMeansApp extends JFrame {
                 boolean useKMeansPlusPlus = kmeansPlusPlusCheck.isSelected();
                 boolean useMultiStart = multiStartCheck.isSelected();
                 int numRestarts = (Integer) numRestartsSpinner.getValue();
+                KMeansMethod kmeansMethod = (KMeansMethod) methodCombo.getSelectedItem();
 
                 KMeansConfig config = new KMeansConfig(k, maxIter, tol);
+                config.setMethod(kmeansMethod);
 
                 long startTime = System.currentTimeMillis();
                 List<Cluster> clusters;
@@ -628,47 +640,35 @@ public class KMeansApp extends JFrame {
                     MultiStartResult result = multiStart.run();
                     clusters = result.getClusters();
                     sse = result.getSSE();
-                    runtime = result.getTotalTime();
+                    runtime = result.getWallTime();
                     iterations = result.getIterations();
-                    method = useParallel ? "MultiStart Parallel" : "MultiStart Sequential";
+                    method = methodName(useParallel ? "MultiStart Parallel" : "MultiStart Sequential", kmeansMethod);
                     initType = useKMeansPlusPlus ? "k-means++" : "Random";
 
                     final int finalIterations = iterations;
-                    final long finalRuntime = runtime;
+                    final long finalTotalTime = result.getTotalTime();
                     final int finalNumRestarts = numRestarts;
 
                     SwingUtilities.invokeLater(() -> {
                         infoArea.append("\nMultiStart completed:\n");
                         infoArea.append("Best restart: " + result.getBestRestart() + "\n");
                         infoArea.append("Iterations: " + finalIterations + "\n");
-                        infoArea.append("Average time per restart: " + (finalRuntime / finalNumRestarts) + " ms\n");
+                        infoArea.append("Average time per restart: " + (finalTotalTime / finalNumRestarts) + " ms\n");
                     });
                 } else {
-                    if (useParallel) {
-                        KMeansParallel kmeans = new KMeansParallel(config, currentDataset);
-                        if (useKMeansPlusPlus) {
-                            List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k);
-                            kmeans.setInitialClusters(initialClusters);
-                        }
-                        kmeans.run();
-                        clusters = kmeans.getClusters();
-                        sse = kmeans.computeSSE();
-                        iterations = kmeans.getIterationsCompleted();
-                    } else {
-                        KMeansSequential kmeans = new KMeansSequential(config, currentDataset);
-                        if (useKMeansPlusPlus) {
-                            List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k);
-                            kmeans.setInitialClusters(initialClusters);
-                        }
-                        kmeans.run();
-                        clusters = kmeans.getClusters();
-                        sse = kmeans.computeSSE();
-                        iterations = kmeans.getIterationsCompleted();
+                    KMeansEngine kmeans = KMeansEngine.create(config, currentDataset, useParallel);
+                    if (useKMeansPlusPlus) {
+                        List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k, config.newRandom());
+                        kmeans.setInitialClusters(initialClusters);
                     }
+                    kmeans.run();
+                    clusters = kmeans.getClusters();
+                    sse = kmeans.computeSSE();
+                    iterations = kmeans.getIterationsCompleted();
 
                     long endTime = System.currentTimeMillis();
                     runtime = endTime - startTime;
-                    method = useParallel ? "Parallel" : "Sequential";
+                    method = methodName(useParallel ? "Parallel" : "Sequential", kmeansMethod);
                     initType = useKMeansPlusPlus ? "k-means++" : "Random";
                 }
 
@@ -711,6 +711,11 @@ public class KMeansApp extends JFrame {
         });
     }
 
+    // Results table label: the implementation, plus the algorithm when it is not plain Lloyd
+    private static String methodName(String implementation, KMeansMethod method) {
+        return method == KMeansMethod.LLOYD ? implementation : implementation + " " + method;
+    }
+
     private void animateKMeans() {
         if (currentDataset == null || currentDataset.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please load a dataset first.",
@@ -829,14 +834,16 @@ public class KMeansApp extends JFrame {
                 int maxIter = (Integer) maxIterationsSpinner.getValue();
                 double tol = (Double) toleranceSpinner.getValue();
                 boolean useKMeansPlusPlus = kmeansPlusPlusCheck.isSelected();
+                KMeansMethod kmeansMethod = (KMeansMethod) methodCombo.getSelectedItem();
 
                 KMeansConfig config = new KMeansConfig(k, maxIter, tol);
+                config.setMethod(kmeansMethod);
 
                 // Run Sequential
                 long seqStartTime = System.currentTimeMillis();
-                KMeansSequential sequential = new KMeansSequential(config, currentDataset);
+                KMeansEngine sequential = KMeansEngine.create(config, currentDataset, false);
                 if (useKMeansPlusPlus) {
-                    List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k);
+                    List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k, config.newRandom());
                     sequential.setInitialClusters(initialClusters);
                 }
                 sequential.run();
@@ -847,9 +854,9 @@ public class KMeansApp extends JFrame {
 
                 // Run Parallel
                 long parStartTime = System.currentTimeMillis();
-                KMeansParallel parallel = new KMeansParallel(config, currentDataset);
+                KMeansEngine parallel = KMeansEngine.create(config, currentDataset, true);
                 if (useKMeansPlusPlus) {
-                    List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k);
+                    List<Cluster> initialClusters = bonus.KMeansPlusPlusInitializer.initializeClusters(currentDataset, k, config.newRandom());
                     parallel.setInitialClusters(initialClusters);
                 }
                 parallel.run();
@@ -874,7 +881,7 @@ public class KMeansApp extends JFrame {
                 SwingUtilities.invokeLater(() -> {
                     // Add both results to table
                     tableModel.addRow(new Object[]{
-                            "Sequential",
+                            methodName("Sequential", kmeansMethod),
                             k,
                             String.format("%.4f", finalSeqSSE),
                             finalSeqRuntime + " ms",
@@ -883,7 +890,7 @@ public class KMeansApp extends JFrame {
                     });
 
                     tableModel.addRow(new Object[]{
-                            "Parallel",
+                            methodName("Parallel", kmeansMethod),
                             k,
                             String.format("%.4f", finalParSSE),
                             finalParRuntime + " ms",
@@ -225,7 +225,7 @@ public class ScatterPlotPanel extends JPanel {
             
             // Draw text in light color for dark mode
             g2d.setColor(TEXT_COLOR);
-            String label = String.format("C%d: %d pts", i, clusters.get(i).getPoints().size());
+            String label = String.format("C%d: %d pts", i, clusters.get(i).getSize());
             g2d.drawString(label, legendX + 35, itemY);
             itemY += 22;
         }
@@ -0,0 +1,65 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Canonical cluster assignment of a dataset: one label per row plus per-cluster counts.
+ * Clusters bound to an assignment only materialize their point lists when
+ * {@link Cluster#getPoints()} is first called, and all k lists are then built in a single pass.
+ * The labels array is shared with the engine that produced it, so the lists reflect the labels
+ * as they are when first materialized.
+ */
+public final class Assignment {
+
+    private final int[] labels;
+    private final int[] counts;
+    private final IntFunction<Point> rows;
+    private List<List<Point>> members;
+
+    /**
+     * @param labels cluster index of every row
+     * @param counts number of rows per cluster (copied)
+     * @param rows   supplies the Point for a row index when the lists are materialized
+     */
+    public Assignment(int[] labels, int[] counts, IntFunction<Point> rows) {
+        this.labels = labels;
+        this.counts = counts.clone();
+        this.rows = rows;
+    }
+
+    /**
+     * Bind cluster i of the list to label i of this assignment
+     */
+    public void bind(List<Cluster> clusters) {
+        for (int i = 0; i < clusters.size(); i++) {
+            clusters.get(i).bind(this, i);
+        }
+    }
+
+    public int[] getLabels() {
+        return labels;
+    }
+
+    public int getCount(int cluster) {
+        return counts[cluster];
+    }
+
+    public int getNumClusters() {
+        return counts.length;
+    }
+
+    synchronized List<Point> members(int cluster) {
+        if (members == null) {
+            members = new ArrayList<>(counts.length);
+            for (int count : counts) {
+                members.add(new ArrayList<>(count));
+            }
+            for (int i = 0; i < labels.length; i++) {
+                members.get(labels[i]).add(rows.apply(i));
+            }
+        }
+        return members.get(cluster);
+    }
+}
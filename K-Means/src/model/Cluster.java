@@ -6,7 +6,9 @@ import java.util.List;
 public class Cluster {
 
     private Point centroid;
-    private final List<Point> points;
+    private List<Point> points;
+    private Assignment assignment;   // label-backed membership, materialized into points on demand
+    private int label;
 
     public Cluster(Point centroid) {
         this.centroid = centroid;
@@ -14,13 +16,32 @@ public class Cluster {
     }
 
     public void addPoint(Point p) {
+        materialize();
         points.add(p);
     }
 
     public void clearPoints() {
+        assignment = null;
         points.clear();
     }
 
+    /**
+     * Make this cluster's members the rows carrying {@code label} in the assignment.
+     * O(1): the point list is only built if someone asks for it.
+     */
+    void bind(Assignment assignment, int label) {
+        this.assignment = assignment;
+        this.label = label;
+        this.points = new ArrayList<>();
+    }
+
+    /**
+     * Number of member points, without materializing them
+     */
+    public int getSize() {
+        return assignment != null ? assignment.getCount(label) : points.size();
+    }
+
  
     public Point getCentroid() {
         return centroid;
@@ -32,10 +53,19 @@ public class Cluster {
     }
     
     public List<Point> getPoints() {
+        materialize();
         return points;
     }
 
+    private void materialize() {
+        if (assignment != null) {
+            points = assignment.members(label);
+            assignment = null;
+        }
+    }
+
     public void recomputeCentroid() {
+        List<Point> points = getPoints();
         if (points.isEmpty()) {
             return; 
         }
@@ -61,7 +91,7 @@ public class Cluster {
     public String toString() {
         return "Cluster{" +
                 "centroid=" + centroid +
-                ", points=" + points.size() + " points" +
+                ", points=" + getSize() + " points" +
                 '}';
     }
 }
@@ -0,0 +1,47 @@
+package model;
+
+/**
+ * Read-only view of n points with d dimensions, addressed by row index.
+ * Implemented by the heap-backed {@link PointMatrix} and the off-heap {@link OffHeapPointMatrix},
+ * so the engines can cluster either without caring where the coordinates live.
+ */
+public interface DataSet {
+
+    int size();
+
+    int getDimension();
+
+    double get(int row, int col);
+
+    /**
+     * Copy rows [fromRow, toRow) row-major into dst starting at dstOffset
+     */
+    void copyRows(int fromRow, int toRow, double[] dst, int dstOffset);
+
+    default void copyRow(int row, double[] dst, int dstOffset) {
+        copyRows(row, row + 1, dst, dstOffset);
+    }
+
+    /**
+     * Materialize one row as a standalone Point (copies the coordinates)
+     */
+    default Point getPoint(int row) {
+        double[] coords = new double[getDimension()];
+        copyRow(row, coords, 0);
+        return new Point(coords);
+    }
+
+    /**
+     * Backing row-major array when the rows already live in one heap array, null otherwise
+     */
+    default double[] heapArray() {
+        return null;
+    }
+
+    /**
+     * Walk rows [fromRow, toRow) as flat row-major tiles, see {@link RowTiles}
+     */
+    default RowTiles tiles(int fromRow, int toRow) {
+        return new RowTiles(this, fromRow, toRow);
+    }
+}
@@ -7,6 +7,7 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class DataSetLoader {
@@ -82,14 +83,8 @@ public class DataSetLoader {
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty()) continue;
 
-                String[] tokens = line.split(",");
                 double[] coords = new double[numericColumns.length];
-
-                for (int i = 0; i < numericColumns.length; i++) {
-                    // Remove $ or k$ if present and parse as double
-                    String val = tokens[numericColumns[i]].trim().replace("$","").replace("k","").replace("K","");
-                    coords[i] = Double.parseDouble(val);
-                }
+                parseRow(line, numericColumns, coords, 0);
 
                 points.add(new Point(coords));
             }
@@ -105,6 +100,104 @@ public class DataSetLoader {
         return points;
     }
 
+    /**
+     * Same as {@link #loadCSV(String, int[])} but parses straight into a contiguous
+     * row-major matrix, without allocating a Point per row
+     */
+    public static PointMatrix loadCSVMatrix(String filePath, int[] numericColumns) {
+        int dim = numericColumns.length;
+        double[] data = new double[1024 * dim];
+        int rows = 0;
+
+        String resolvedPath = resolveFilePath(filePath);
+
+        try (BufferedReader br = new BufferedReader(new FileReader(resolvedPath))) {
+            String line = br.readLine(); // skip header
+
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+
+                if ((rows + 1) * dim > data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                parseRow(line, numericColumns, data, rows * dim);
+                rows++;
+            }
+
+        } catch (IOException e) {
+            System.err.println("Error loading CSV file: " + resolvedPath);
+            System.err.println("Current working directory: " + System.getProperty("user.dir"));
+            System.err.println("Please ensure the data file exists at: " + resolvedPath);
+            e.printStackTrace();
+            throw new RuntimeException("Failed to load dataset from: " + resolvedPath, e);
+        }
+
+        return new PointMatrix(Arrays.copyOf(data, rows * dim), dim);
+    }
+
+    /**
+     * Load a CSV straight into off-heap memory. The file is read twice: once to count the
+     * data rows so the segment can be sized exactly, once to parse rows through a small
+     * heap buffer. The caller owns the result and must close it.
+     */
+    public static OffHeapPointMatrix loadCSVOffHeap(String filePath, int[] numericColumns) {
+        String resolvedPath = resolveFilePath(filePath);
+        int dim = numericColumns.length;
+
+        try {
+            int rows = 0;
+            try (BufferedReader br = new BufferedReader(new FileReader(resolvedPath))) {
+                String line = br.readLine(); // skip header
+                while ((line = br.readLine()) != null) {
+                    if (!line.trim().isEmpty()) rows++;
+                }
+            }
+
+            OffHeapPointMatrix matrix = new OffHeapPointMatrix(rows, dim);
+            double[] buffer = new double[RowTiles.TILE_ROWS * dim];
+            int buffered = 0;
+            int written = 0;
+
+            try (BufferedReader br = new BufferedReader(new FileReader(resolvedPath))) {
+                String line = br.readLine(); // skip header
+                while ((line = br.readLine()) != null && written + buffered < rows) {
+                    if (line.trim().isEmpty()) continue;
+
+                    parseRow(line, numericColumns, buffer, buffered * dim);
+                    if (++buffered == RowTiles.TILE_ROWS) {
+                        matrix.setRows(written, buffer, 0, buffered);
+                        written += buffered;
+                        buffered = 0;
+                    }
+                }
+                matrix.setRows(written, buffer, 0, buffered);
+            } catch (IOException | RuntimeException e) {
+                matrix.close();
+                throw e;
+            }
+            return matrix;
+
+        } catch (IOException e) {
+            System.err.println("Error loading CSV file: " + resolvedPath);
+            System.err.println("Current working directory: " + System.getProperty("user.dir"));
+            System.err.println("Please ensure the data file exists at: " + resolvedPath);
+            e.printStackTrace();
+            throw new RuntimeException("Failed to load dataset from: " + resolvedPath, e);
+        }
+    }
+
+    /**
+     * Parse the selected numeric columns of one CSV line into dst starting at offset
+     */
+    private static void parseRow(String line, int[] numericColumns, double[] dst, int offset) {
+        String[] tokens = line.split(",");
+        for (int i = 0; i < numericColumns.length; i++) {
+            // Remove $ or k$ if present and parse as double
+            String val = tokens[numericColumns[i]].trim().replace("$","").replace("k","").replace("K","");
+            dst[offset + i] = Double.parseDouble(val);
+        }
+    }
+
     /**
      * Preconfigured loader for the Mall Customers dataset
      */
@@ -126,6 +219,22 @@ public class DataSetLoader {
         return loadCSV("data/BankChurners.csv", bankCols);
     }
 
+    /**
+     * Mall Customers dataset as a row-major matrix
+     */
+    public static PointMatrix loadMallMatrix() {
+        int[] mallCols = {2, 3, 4};
+        return loadCSVMatrix("data/Mall_Customers.csv", mallCols);
+    }
+
+    /**
+     * Bank/Credit Card dataset as a row-major matrix (same columns as {@link #loadBankDataset()})
+     */
+    public static PointMatrix loadBankMatrix() {
+        int[] bankCols = {2, 4, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+        return loadCSVMatrix("data/BankChurners.csv", bankCols);
+    }
+
     /**
      * Generate a synthetic 2D dataset with multiple clusters
      * Creates well-separated clusters for testing K-Means
@@ -171,6 +280,95 @@ public class DataSetLoader {
         return points;
     }
 
+    /**
+     * Matrix variant of {@link #generateSynthetic2DDataset(int, int, double)}.
+     * Uses the same seed and the same draw order, so both produce identical points.
+     */
+    public static PointMatrix generateSynthetic2DMatrix(int numPoints, int numClusters, double noiseLevel) {
+        PointMatrix matrix = new PointMatrix(numPoints, 2);
+        double[] data = matrix.getData();
+        java.util.Random random = new java.util.Random(42); // Fixed seed for reproducibility
+
+        double[][] clusterCenters = new double[numClusters][2];
+        for (int i = 0; i < numClusters; i++) {
+            double angle = 2 * Math.PI * i / numClusters;
+            double radius = 50 + (i % 3) * 30;
+            clusterCenters[i][0] = 100 + radius * Math.cos(angle);
+            clusterCenters[i][1] = 100 + radius * Math.sin(angle);
+        }
+
+        int pointsPerCluster = numPoints / numClusters;
+        int remainingPoints = numPoints % numClusters;
+        int row = 0;
+
+        for (int clusterIdx = 0; clusterIdx < numClusters; clusterIdx++) {
+            int pointsInThisCluster = pointsPerCluster + (clusterIdx < remainingPoints ? 1 : 0);
+
+            for (int i = 0; i < pointsInThisCluster; i++) {
+                data[row * 2] = clusterCenters[clusterIdx][0] + random.nextGaussian() * (10 + noiseLevel * 20);
+                data[row * 2 + 1] = clusterCenters[clusterIdx][1] + random.nextGaussian() * (10 + noiseLevel * 20);
+                row++;
+            }
+        }
+
+        // Shuffle rows in place, mirroring Collections.shuffle on a random-access list
+        for (int i = numPoints; i > 1; i--) {
+            int j = random.nextInt(i);
+            int a = (i - 1) * 2;
+            int b = j * 2;
+            double x = data[a];
+            double y = data[a + 1];
+            data[a] = data[b];
+            data[a + 1] = data[b + 1];
+            data[b] = x;
+            data[b + 1] = y;
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Gaussian blobs in any dimension, for benchmarks that sweep d.
+     * Centers are drawn uniformly in [0, 200]^d; rows come out shuffled. Fixed seed, like the 2D generators.
+     *
+     * @param numPoints Total number of points to generate
+     * @param dimension Coordinates per point
+     * @param numClusters Number of distinct clusters to create
+     * @param noiseLevel Amount of noise/variance (0.0 to 1.0)
+     */
+    public static PointMatrix generateSyntheticMatrix(int numPoints, int dimension, int numClusters, double noiseLevel) {
+        if (numPoints <= 0 || dimension <= 0 || numClusters <= 0) {
+            throw new IllegalArgumentException("Points, dimension and clusters must be positive");
+        }
+        PointMatrix matrix = new PointMatrix(numPoints, dimension);
+        double[] data = matrix.getData();
+        java.util.Random random = new java.util.Random(42); // Fixed seed for reproducibility
+
+        double[] clusterCenters = new double[numClusters * dimension];
+        for (int i = 0; i < clusterCenters.length; i++) {
+            clusterCenters[i] = random.nextDouble() * 200;
+        }
+
+        double spread = 10 + noiseLevel * 20;
+        for (int row = 0; row < numPoints; row++) {
+            int center = (row % numClusters) * dimension;
+            for (int j = 0; j < dimension; j++) {
+                data[row * dimension + j] = clusterCenters[center + j] + random.nextGaussian() * spread;
+            }
+        }
+
+        // Fisher-Yates over whole rows
+        double[] tmp = new double[dimension];
+        for (int i = numPoints - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            System.arraycopy(data, i * dimension, tmp, 0, dimension);
+            System.arraycopy(data, j * dimension, data, i * dimension, dimension);
+            System.arraycopy(tmp, 0, data, j * dimension, dimension);
+        }
+
+        return matrix;
+    }
+
     /**
      * Generate a default synthetic 2D dataset (300 points, 4 clusters, moderate noise)
      */
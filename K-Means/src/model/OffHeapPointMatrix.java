@@ -0,0 +1,102 @@
+package model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Row-major dataset stored outside the Java heap in a {@link MemorySegment}.
+ * The GC never scans or copies the coordinates, so multi-GB datasets can be clustered
+ * with a small heap. The segment belongs to a shared {@link Arena}, so fork/join workers
+ * can read it concurrently; call {@link #close()} to release the memory.
+ */
+public final class OffHeapPointMatrix implements DataSet, AutoCloseable {
+
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int size;
+    private final int dimension;
+
+    public OffHeapPointMatrix(int size, int dimension) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be non-negative");
+        }
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+        this.size = size;
+        this.dimension = dimension;
+        this.arena = Arena.ofShared();
+        this.segment = arena.allocate((long) size * dimension * Double.BYTES, DOUBLE.byteAlignment());
+    }
+
+    /**
+     * Copy any dataset (typically a heap {@link PointMatrix}) into off-heap memory
+     */
+    public static OffHeapPointMatrix copyOf(DataSet source) {
+        OffHeapPointMatrix matrix = new OffHeapPointMatrix(source.size(), source.getDimension());
+        double[] buffer = new double[RowTiles.TILE_ROWS * source.getDimension()];
+        for (int from = 0; from < source.size(); from += RowTiles.TILE_ROWS) {
+            int to = Math.min(source.size(), from + RowTiles.TILE_ROWS);
+            source.copyRows(from, to, buffer, 0);
+            matrix.setRows(from, buffer, 0, to - from);
+        }
+        return matrix;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return segment.getAtIndex(DOUBLE, (long) row * dimension + col);
+    }
+
+    public void set(int row, int col, double value) {
+        segment.setAtIndex(DOUBLE, (long) row * dimension + col, value);
+    }
+
+    /**
+     * Write {@code rows} consecutive rows starting at {@code firstRow} from a row-major array
+     */
+    public void setRows(int firstRow, double[] src, int srcOffset, int rows) {
+        MemorySegment.copy(src, srcOffset, segment, DOUBLE, (long) firstRow * dimension * Double.BYTES,
+                rows * dimension);
+    }
+
+    @Override
+    public void copyRows(int fromRow, int toRow, double[] dst, int dstOffset) {
+        MemorySegment.copy(segment, DOUBLE, (long) fromRow * dimension * Double.BYTES,
+                dst, dstOffset, (toRow - fromRow) * dimension);
+    }
+
+    /**
+     * Underlying segment, for callers that want to fill or map it themselves
+     */
+    public MemorySegment getSegment() {
+        return segment;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapPointMatrix{" +
+                "size=" + size +
+                ", dimension=" + dimension +
+                ", bytes=" + segment.byteSize() +
+                '}';
+    }
+}
@@ -0,0 +1,164 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dense dataset of n points with d dimensions stored row-major in one contiguous double[n*d].
+ * Row i occupies indexes [i*d, i*d + d), so the engines can stream it by index instead of
+ * dereferencing one Point object per row.
+ */
+public final class PointMatrix implements DataSet {
+
+    private final double[] data;
+    private final int size;
+    private final int dimension;
+
+    public PointMatrix(int size, int dimension) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be non-negative");
+        }
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+        this.size = size;
+        this.dimension = dimension;
+        this.data = new double[Math.multiplyExact(size, dimension)];
+    }
+
+    /**
+     * Wraps an existing row-major array without copying it
+     */
+    public PointMatrix(double[] data, int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("dimension must be positive");
+        }
+        if (data.length % dimension != 0) {
+            throw new IllegalArgumentException("data length " + data.length +
+                    " is not a multiple of dimension " + dimension);
+        }
+        this.data = data;
+        this.size = data.length / dimension;
+        this.dimension = dimension;
+    }
+
+    /**
+     * Copy a list of points into a new matrix. All points must share the same dimension.
+     */
+    public static PointMatrix fromPoints(List<Point> points) {
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("Points list cannot be null or empty");
+        }
+        int dim = points.get(0).getDimension();
+        PointMatrix matrix = new PointMatrix(points.size(), dim);
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
+            if (p.getDimension() != dim) {
+                throw new IllegalArgumentException("Points must have the same dimension.");
+            }
+            for (int j = 0; j < dim; j++) {
+                matrix.data[i * dim + j] = p.getCoordinate(j);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Snapshot the centroids of a list of clusters as a k x d matrix
+     */
+    public static PointMatrix fromCentroids(List<Cluster> clusters) {
+        List<Point> centroids = new ArrayList<>(clusters.size());
+        for (Cluster c : clusters) {
+            centroids.add(c.getCentroid());
+        }
+        return fromPoints(centroids);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Index of the first coordinate of a row in {@link #getData()}
+     */
+    public int offset(int row) {
+        return row * dimension;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return data[row * dimension + col];
+    }
+
+    public void set(int row, int col, double value) {
+        data[row * dimension + col] = value;
+    }
+
+    public void setRow(int row, double[] coords) {
+        if (coords.length != dimension) {
+            throw new IllegalArgumentException("Row must have " + dimension + " coordinates.");
+        }
+        System.arraycopy(coords, 0, data, row * dimension, dimension);
+    }
+
+    @Override
+    public void copyRow(int row, double[] dst, int dstOffset) {
+        System.arraycopy(data, row * dimension, dst, dstOffset, dimension);
+    }
+
+    @Override
+    public void copyRows(int fromRow, int toRow, double[] dst, int dstOffset) {
+        System.arraycopy(data, fromRow * dimension, dst, dstOffset, (toRow - fromRow) * dimension);
+    }
+
+    /**
+     * Backing row-major array (not a copy). Hot loops read it directly.
+     */
+    public double[] getData() {
+        return data;
+    }
+
+    @Override
+    public double[] heapArray() {
+        return data;
+    }
+
+    /**
+     * Materialize one row as a standalone Point (copies the coordinates)
+     */
+    @Override
+    public Point getPoint(int row) {
+        return new Point(Arrays.copyOfRange(data, row * dimension, (row + 1) * dimension));
+    }
+
+    /**
+     * Copy of the first {@code count} rows
+     */
+    public PointMatrix head(int count) {
+        int rows = Math.min(count, size);
+        return new PointMatrix(Arrays.copyOf(data, rows * dimension), dimension);
+    }
+
+    public List<Point> toPoints() {
+        List<Point> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(getPoint(i));
+        }
+        return points;
+    }
+
+    @Override
+    public String toString() {
+        return "PointMatrix{" +
+                "size=" + size +
+                ", dimension=" + dimension +
+                '}';
+    }
+}
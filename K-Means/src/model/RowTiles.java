@@ -0,0 +1,84 @@
+package model;
+
+/**
+ * Cursor over a row range of a {@link DataSet} in flat row-major tiles of at most
+ * {@link #TILE_ROWS} rows, so callers can size per-tile scratch arrays once.
+ * Heap-backed data is exposed as windows over its own backing array (no copy);
+ * other stores are copied tile by tile into one reusable scratch buffer.
+ *
+ * <pre>
+ * RowTiles tiles = data.tiles(start, end);
+ * while (tiles.next()) {
+ *     double[] rows = tiles.rows();
+ *     for (int i = tiles.first(), offset = tiles.offset(); i &lt; tiles.last(); i++, offset += dim) { ... }
+ * }
+ * </pre>
+ */
+public final class RowTiles {
+
+    public static final int TILE_ROWS = 512;
+
+    private final DataSet data;
+    private final int end;
+    private final double[] heap;
+    private final double[] scratch;
+    private int first;
+    private int last;
+    private double[] rows;
+    private int offset;
+
+    RowTiles(DataSet data, int fromRow, int toRow) {
+        this.data = data;
+        this.end = toRow;
+        this.heap = data.heapArray();
+        this.scratch = heap != null ? null
+                : new double[Math.max(0, Math.min(TILE_ROWS, toRow - fromRow)) * data.getDimension()];
+        this.first = fromRow;
+        this.last = fromRow;
+    }
+
+    /**
+     * Advance to the next tile; false once the range is exhausted
+     */
+    public boolean next() {
+        if (last >= end) {
+            return false;
+        }
+        first = last;
+        last = Math.min(end, first + TILE_ROWS);
+        if (heap != null) {
+            rows = heap;
+            offset = first * data.getDimension();
+        } else {
+            data.copyRows(first, last, scratch, 0);
+            rows = scratch;
+            offset = 0;
+        }
+        return true;
+    }
+
+    // First row index of the current tile (inclusive)
+    public int first() {
+        return first;
+    }
+
+    // Last row index of the current tile (exclusive)
+    public int last() {
+        return last;
+    }
+
+    // Number of rows in the current tile
+    public int count() {
+        return last - first;
+    }
+
+    // Array holding the current tile's rows
+    public double[] rows() {
+        return rows;
+    }
+
+    // Index in rows() of the first coordinate of row first()
+    public int offset() {
+        return offset;
+    }
+}
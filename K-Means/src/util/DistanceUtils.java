@@ -18,4 +18,178 @@ public class DistanceUtils {
 
         return Math.sqrt(sum);
     }
+
+    // Euclidean distance between two rows of flat row-major arrays
+    public static double distance(double[] a, int aOffset, double[] b, int bOffset, int dimension) {
+        return Math.sqrt(squaredDistance(a, aOffset, b, bOffset, dimension));
+    }
+
+    // Throws IllegalArgumentException when the data and centroid dimensions differ
+    public static void checkDimensions(int dataDimension, int centroidDimension) {
+        if (dataDimension != centroidDimension) {
+            throw new IllegalArgumentException("Centroids have dimension " + centroidDimension +
+                    " but the data has dimension " + dataDimension + ".");
+        }
+    }
+
+    /*
+     * Squared-Euclidean kernels for the argmin loops.
+     * Comparing squared distances picks the same nearest centroid without a sqrt per pair,
+     * and none of these re-check dimensions: callers validate once per run with checkDimensions.
+     * Dimensions 2, 3 (synthetic and Mall data) and 14 (Bank data) get specialized bodies.
+     */
+
+    // Squared Euclidean distance between two rows of flat row-major arrays
+    public static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int dimension) {
+        switch (dimension) {
+            case 2:
+                return squaredDistance2(a, aOffset, b, bOffset);
+            case 3:
+                return squaredDistance3(a, aOffset, b, bOffset);
+            case 14:
+                return squaredDistance14(a, aOffset, b, bOffset);
+            default:
+                return squaredDistanceN(a, aOffset, b, bOffset, dimension);
+        }
+    }
+
+    public static double squaredDistance2(double[] a, int aOffset, double[] b, int bOffset) {
+        double d0 = a[aOffset] - b[bOffset];
+        double d1 = a[aOffset + 1] - b[bOffset + 1];
+        return d0 * d0 + d1 * d1;
+    }
+
+    public static double squaredDistance3(double[] a, int aOffset, double[] b, int bOffset) {
+        double d0 = a[aOffset] - b[bOffset];
+        double d1 = a[aOffset + 1] - b[bOffset + 1];
+        double d2 = a[aOffset + 2] - b[bOffset + 2];
+        return d0 * d0 + d1 * d1 + d2 * d2;
+    }
+
+    public static double squaredDistance14(double[] a, int aOffset, double[] b, int bOffset) {
+        // Constant trip count: the JIT fully unrolls this; two accumulators shorten the add chain
+        double s0 = 0;
+        double s1 = 0;
+        for (int i = 0; i < 14; i += 2) {
+            double d0 = a[aOffset + i] - b[bOffset + i];
+            double d1 = a[aOffset + i + 1] - b[bOffset + i + 1];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+        }
+        return s0 + s1;
+    }
+
+    public static double squaredDistanceN(double[] a, int aOffset, double[] b, int bOffset, int dimension) {
+        double sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            double diff = a[aOffset + i] - b[bOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Nearest centroid of {@code count} consecutive rows.
+     * The dimension switch happens once per call, not once per pair.
+     *
+     * @param rows         row-major coordinates, first row at rowOffset
+     * @param centroids    k x dimension row-major centroids
+     * @param labels       receives the index of the nearest centroid of row r at labelOffset + r
+     * @param minDistances receives the squared distance to that centroid at index r
+     */
+    public static void nearestCentroids(double[] rows, int rowOffset, int count,
+                                        double[] centroids, int k, int dimension,
+                                        int[] labels, int labelOffset, double[] minDistances) {
+        switch (dimension) {
+            case 2:
+                nearestCentroids2(rows, rowOffset, count, centroids, k, labels, labelOffset, minDistances);
+                break;
+            case 3:
+                nearestCentroids3(rows, rowOffset, count, centroids, k, labels, labelOffset, minDistances);
+                break;
+            case 14:
+                nearestCentroids14(rows, rowOffset, count, centroids, k, labels, labelOffset, minDistances);
+                break;
+            default:
+                nearestCentroidsN(rows, rowOffset, count, centroids, k, dimension, labels, labelOffset, minDistances);
+        }
+    }
+
+    private static void nearestCentroids2(double[] rows, int rowOffset, int count, double[] centroids, int k,
+                                          int[] labels, int labelOffset, double[] minDistances) {
+        for (int r = 0, offset = rowOffset; r < count; r++, offset += 2) {
+            double x = rows[offset];
+            double y = rows[offset + 1];
+            int nearest = 0;
+            double minDist = Double.MAX_VALUE;
+            for (int j = 0, c = 0; j < k; j++, c += 2) {
+                double dx = x - centroids[c];
+                double dy = y - centroids[c + 1];
+                double dist = dx * dx + dy * dy;
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest = j;
+                }
+            }
+            labels[labelOffset + r] = nearest;
+            minDistances[r] = minDist;
+        }
+    }
+
+    private static void nearestCentroids3(double[] rows, int rowOffset, int count, double[] centroids, int k,
+                                          int[] labels, int labelOffset, double[] minDistances) {
+        for (int r = 0, offset = rowOffset; r < count; r++, offset += 3) {
+            double x = rows[offset];
+            double y = rows[offset + 1];
+            double z = rows[offset + 2];
+            int nearest = 0;
+            double minDist = Double.MAX_VALUE;
+            for (int j = 0, c = 0; j < k; j++, c += 3) {
+                double dx = x - centroids[c];
+                double dy = y - centroids[c + 1];
+                double dz = z - centroids[c + 2];
+                double dist = dx * dx + dy * dy + dz * dz;
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest = j;
+                }
+            }
+            labels[labelOffset + r] = nearest;
+            minDistances[r] = minDist;
+        }
+    }
+
+    private static void nearestCentroids14(double[] rows, int rowOffset, int count, double[] centroids, int k,
+                                           int[] labels, int labelOffset, double[] minDistances) {
+        for (int r = 0, offset = rowOffset; r < count; r++, offset += 14) {
+            int nearest = 0;
+            double minDist = Double.MAX_VALUE;
+            for (int j = 0, c = 0; j < k; j++, c += 14) {
+                double dist = squaredDistance14(rows, offset, centroids, c);
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest = j;
+                }
+            }
+            labels[labelOffset + r] = nearest;
+            minDistances[r] = minDist;
+        }
+    }
+
+    private static void nearestCentroidsN(double[] rows, int rowOffset, int count, double[] centroids, int k,
+                                          int dimension, int[] labels, int labelOffset, double[] minDistances) {
+        for (int r = 0, offset = rowOffset; r < count; r++, offset += dimension) {
+            int nearest = 0;
+            double minDist = Double.MAX_VALUE;
+            for (int j = 0, c = 0; j < k; j++, c += dimension) {
+                double dist = squaredDistanceN(rows, offset, centroids, c, dimension);
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest = j;
+                }
+            }
+            labels[labelOffset + r] = nearest;
+            minDistances[r] = minDist;
+        }
+    }
 }
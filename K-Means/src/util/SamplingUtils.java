@@ -0,0 +1,22 @@
+package util;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+public class SamplingUtils {
+
+    // Partial Fisher-Yates over row indexes: k distinct random rows out of n
+    public static int[] randomDistinctRows(int n, int k, RandomGenerator random) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return Arrays.copyOf(order, k);
+    }
+}